@@ -0,0 +1,59 @@
+package com.td.boot.starter.cache.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 基準測試入口，先打印各格式下每個緩存值序列化後的字節數，再運行所有基準測試。
+ * 結果輸出為 JSON 文件 (jmh-result.json)，可以提交到評審中與上一次結果對比。
+ * <pre>
+ * mvn -Pbenchmark -pl td-boot-starters/td-cache-benchmark -am package
+ * java -jar td-boot-starters/td-cache-benchmark/target/benchmarks.jar [JMH 參數，例如 -p value=PRODUCT_32_SKU]
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    private static final String[] FORMATS = {"JSON", "SMILE", "SMILE_ALIAS"};
+    private static final String[] VALUES = {"SKU", "PRODUCT_4_SKU", "PRODUCT_32_SKU"};
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        printPayloadSizes();
+
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        String resultDir = System.getProperty("benchmark.resultDir", ".");
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLineOptions);
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            options.include(CacheValueSerializerBenchmark.class.getSimpleName());
+        }
+        options.addProfiler(GCProfiler.class) // 分配速率 (gc.alloc.rate.norm)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(resultDir, "jmh-result.json").getPath());
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * 打印各格式下每個緩存值序列化後的字節數，並校驗反序列化結果與原值相等。
+     */
+    private static void printPayloadSizes() {
+        System.out.printf("%-16s %-12s %10s%n", "value", "format", "bytes");
+        for (String value : VALUES) {
+            Object cacheValue = CacheValueSerializerBenchmark.value(value);
+            for (String format : FORMATS) {
+                byte[] bytes = CacheValueSerializerBenchmark.serializer(format).serialize(cacheValue);
+                Object restored = CacheValueSerializerBenchmark.serializer(format).deserialize(bytes);
+                if (!cacheValue.equals(restored)) {
+                    throw new IllegalStateException(format + " 格式反序列化結果與原值不一致: " + value);
+                }
+                System.out.printf("%-16s %-12s %10d%n", value, format, bytes.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.td.boot.starter.cache.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.td.boot.starter.cache.serializer.SmileCacheValueCodec;
+import com.td.boot.starter.cache.serializer.TypeAliasRegistry;
+import com.td.boot.starter.cache.serializer.VersionedCacheValueSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 緩存值序列化器基準測試。
+ * 對比現有的帶類型 JSON 格式與 Smile 格式 (有無類型別名) 在單個 SKU 和帶多個 SKU 的商品詳情上的
+ * 序列化、反序列化耗時和分配速率；各格式的值大小由 {@link BenchmarkRunner} 在運行前打印。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CacheValueSerializerBenchmark {
+
+    /**
+     * 類型別名配置，與業務中 td.cache.serializer.type-aliases 的配置方式相同。
+     */
+    static final Map<String, String> TYPE_ALIASES = Map.of(
+            "product", ProductDTO.class.getName(),
+            "sku", SkuDTO.class.getName());
+
+    /**
+     * 被測的序列化格式。
+     */
+    @Param({"JSON", "SMILE", "SMILE_ALIAS"})
+    private String format;
+
+    /**
+     * 被測的緩存值。
+     */
+    @Param({"SKU", "PRODUCT_4_SKU", "PRODUCT_32_SKU"})
+    private String value;
+
+    private RedisSerializer<Object> serializer;
+    private Object cacheValue;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = serializer(format);
+        cacheValue = value(value);
+        serialized = serializer.serialize(cacheValue);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(cacheValue);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    /**
+     * 與 CacheAutoConfiguration 中相同配置的序列化器。
+     */
+    static RedisSerializer<Object> serializer(String format) {
+        switch (format) {
+            case "JSON":
+                return jsonSerializer();
+            case "SMILE":
+                return smileSerializer(Collections.emptyMap());
+            case "SMILE_ALIAS":
+                return smileSerializer(TYPE_ALIASES);
+            default:
+                throw new IllegalArgumentException("未知的序列化格式: " + format);
+        }
+    }
+
+    static Object value(String value) {
+        switch (value) {
+            case "SKU":
+                return CacheValues.sku(10_001L, 0);
+            case "PRODUCT_4_SKU":
+                return CacheValues.product(10_001L, 4);
+            case "PRODUCT_32_SKU":
+                return CacheValues.product(10_001L, 32);
+            default:
+                throw new IllegalArgumentException("未知的緩存值: " + value);
+        }
+    }
+
+    private static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    private static RedisSerializer<Object> smileSerializer(Map<String, String> typeAliases) {
+        SmileCacheValueCodec codec = new SmileCacheValueCodec(new TypeAliasRegistry(typeAliases));
+        return new VersionedCacheValueSerializer(codec, Collections.singletonList(codec), jsonSerializer());
+    }
+}
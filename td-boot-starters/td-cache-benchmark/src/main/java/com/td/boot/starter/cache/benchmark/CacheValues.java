@@ -0,0 +1,79 @@
+package com.td.boot.starter.cache.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 生成基準測試使用的緩存值，同一組參數每次生成的數據相同。
+ */
+final class CacheValues {
+
+    private static final long BASE_TIME = 1_717_171_717_000L;
+    private static final String[] COLORS = {"曜石黑", "雲霧白", "遠峰藍", "暗夜紫"};
+    private static final String[] STORAGES = {"128GB", "256GB", "512GB"};
+
+    private CacheValues() {
+    }
+
+    /**
+     * 單個 SKU。
+     */
+    static SkuDTO sku(long productId, int index) {
+        SkuDTO sku = new SkuDTO();
+        sku.setSkuId(productId * 100 + index);
+        sku.setProductId(productId);
+        sku.setSkuCode("SKU-" + productId + "-" + index);
+        String color = COLORS[index % COLORS.length];
+        String storage = STORAGES[index % STORAGES.length];
+        sku.setTitle("旗艦智能手機 " + color + " " + storage);
+        sku.setPrice(BigDecimal.valueOf(599_900 + index * 10_000L, 2));
+        sku.setMarketPrice(BigDecimal.valueOf(699_900 + index * 10_000L, 2));
+        sku.setStock(100 + index * 7);
+        sku.setImage("https://img.example.com/sku/" + productId + "/" + index + ".jpg");
+        Map<String, String> specs = new LinkedHashMap<>();
+        specs.put("顏色", color);
+        specs.put("存儲容量", storage);
+        specs.put("網絡制式", "5G 全網通");
+        sku.setSpecs(specs);
+        sku.setOnSale(Boolean.TRUE);
+        sku.setUpdateTime(BASE_TIME + index);
+        return sku;
+    }
+
+    /**
+     * 帶 skuCount 個 SKU 的商品詳情。
+     */
+    static ProductDTO product(long productId, int skuCount) {
+        ProductDTO product = new ProductDTO();
+        product.setProductId(productId);
+        product.setName("旗艦智能手機 " + productId);
+        product.setSubTitle("全新影像系統，超長續航，支持快充");
+        product.setCategoryId(1001L);
+        product.setCategoryName("手機");
+        product.setBrandId(2001L);
+        product.setBrandName("示例品牌");
+        product.setSales(12_345);
+        product.setStatus(1);
+        product.setMainImage("https://img.example.com/product/" + productId + "/main.jpg");
+        List<String> images = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            images.add("https://img.example.com/product/" + productId + "/" + i + ".jpg");
+        }
+        product.setImages(images);
+        product.setTags(List.of("新品", "包郵", "七天無理由退貨"));
+        product.setDescription("商品詳情：".repeat(40));
+        List<SkuDTO> skus = new ArrayList<>();
+        for (int i = 0; i < skuCount; i++) {
+            skus.add(sku(productId, i));
+        }
+        product.setSkus(skus);
+        product.setMinPrice(skus.isEmpty() ? null : skus.get(0).getPrice());
+        product.setMaxPrice(skus.isEmpty() ? null : skus.get(skus.size() - 1).getPrice());
+        product.setCreateTime(BASE_TIME);
+        product.setUpdateTime(BASE_TIME);
+        return product;
+    }
+}
@@ -0,0 +1,31 @@
+package com.td.boot.starter.cache.benchmark;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 基準測試使用的商品緩存值，字段與商品服務中的商品詳情緩存結構相近。
+ */
+@Data
+public class ProductDTO {
+    private Long productId;
+    private String name;
+    private String subTitle;
+    private Long categoryId;
+    private String categoryName;
+    private Long brandId;
+    private String brandName;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer sales;
+    private Integer status;
+    private String mainImage;
+    private List<String> images;
+    private List<String> tags;
+    private String description;
+    private List<SkuDTO> skus;
+    private Long createTime;
+    private Long updateTime;
+}
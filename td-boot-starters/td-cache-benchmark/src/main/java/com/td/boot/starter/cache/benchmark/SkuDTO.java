@@ -0,0 +1,24 @@
+package com.td.boot.starter.cache.benchmark;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 基準測試使用的 SKU 緩存值，字段與商品服務中的 SKU 緩存結構相近。
+ */
+@Data
+public class SkuDTO {
+    private Long skuId;
+    private Long productId;
+    private String skuCode;
+    private String title;
+    private BigDecimal price;
+    private BigDecimal marketPrice;
+    private Integer stock;
+    private String image;
+    private Map<String, String> specs;
+    private Boolean onSale;
+    private Long updateTime;
+}
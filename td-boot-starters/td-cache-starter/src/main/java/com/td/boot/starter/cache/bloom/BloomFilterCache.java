@@ -0,0 +1,102 @@
+package com.td.boot.starter.cache.bloom;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 在緩存前增加布隆過濾器判斷：過濾器確定不存在的鍵直接按緩存了 null 值返回，不再查詢 Redis，也不執行加載。
+ * 寫入非 null 值時把鍵增量加入過濾器。
+ */
+public class BloomFilterCache implements Cache {
+
+    // 過濾器確定不存在的鍵按緩存命中 null 值返回，@Cacheable 不會再調用被緩存的方法
+    private static final ValueWrapper ABSENT = new SimpleValueWrapper(null);
+
+    private final Cache delegate;
+    private final CacheBloomFilter bloomFilter;
+
+    public BloomFilterCache(Cache delegate, CacheBloomFilter bloomFilter) {
+        this.delegate = delegate;
+        this.bloomFilter = bloomFilter;
+    }
+
+    /**
+     * 被包裝的緩存。
+     */
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        if (!bloomFilter.mightContain(String.valueOf(key))) {
+            return ABSENT;
+        }
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        if (!bloomFilter.mightContain(String.valueOf(key))) {
+            return null;
+        }
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (!bloomFilter.mightContain(String.valueOf(key))) {
+            return null;
+        }
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        if (value != null) {
+            bloomFilter.put(String.valueOf(key));
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (value != null) {
+            bloomFilter.put(String.valueOf(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
@@ -0,0 +1,22 @@
+package com.td.boot.starter.cache.bloom;
+
+import java.util.function.Consumer;
+
+/**
+ * 布隆過濾器的全量鍵來源，註冊為 Spring Bean 後用於啟動時構建和定期重建對應緩存的布隆過濾器。
+ * 提供的鍵必須與緩存鍵一致 (例如 @Cacheable 的 key 為商品 ID 時，這裡提供全部商品 ID)，按 String.valueOf 轉換後比較。
+ */
+public interface BloomFilterKeySource {
+
+    /**
+     * 對應的緩存名稱。
+     */
+    String getCacheName();
+
+    /**
+     * 依次提供全部存在的鍵，數據量較大時應分頁讀取而不是一次加載到內存。
+     *
+     * @param action 接收每一個鍵
+     */
+    void forEachKey(Consumer<Object> action) throws Exception;
+}
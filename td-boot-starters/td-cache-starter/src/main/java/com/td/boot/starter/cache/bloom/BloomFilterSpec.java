@@ -0,0 +1,69 @@
+package com.td.boot.starter.cache.bloom;
+
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 布隆過濾器的位數組大小、哈希函數個數，以及鍵到位下標的映射。
+ * 使用雙重哈希 (h1 + i * h2) 由一次 64 位哈希派生出全部下標。
+ */
+final class BloomFilterSpec {
+
+    private final long numBits;
+    private final int numHashes;
+
+    /**
+     * @param expectedInsertions 預計的鍵數量
+     * @param falsePositiveRate  期望的誤判率，取值 (0, 1)
+     * @param maxBits            位數組大小上限
+     */
+    BloomFilterSpec(long expectedInsertions, double falsePositiveRate, long maxBits) {
+        Assert.isTrue(expectedInsertions > 0, "布隆過濾器的預計鍵數量必須大於 0");
+        Assert.isTrue(falsePositiveRate > 0 && falsePositiveRate < 1, "布隆過濾器的誤判率必須在 (0, 1) 之間");
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        Assert.isTrue(bits <= maxBits, "布隆過濾器的位數組過大 (" + bits + " 位)，請減少預計鍵數量或放寬誤判率");
+        this.numBits = Math.max(64, bits);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    long getNumBits() {
+        return numBits;
+    }
+
+    int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * 鍵對應的全部位下標。
+     */
+    long[] bitIndexes(String key) {
+        long h1 = hash64(key.getBytes(StandardCharsets.UTF_8));
+        long h2 = fmix64(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        long[] indexes = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            indexes[i] = Math.floorMod(h1 + i * h2, numBits);
+        }
+        return indexes;
+    }
+
+    // FNV-1a 累加後再做一次 MurmurHash3 的 fmix64，使高低位都充分混合
+    private static long hash64(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return fmix64(h);
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,29 @@
+package com.td.boot.starter.cache.bloom;
+
+/**
+ * 緩存鍵的布隆過濾器，用於在查詢緩存和數據源之前排除一定不存在的鍵。
+ * 過濾器尚未構建時 {@link #mightContain(String)} 必須返回 true (放行)，不能因為過濾器為空而拒絕所有查詢。
+ */
+public interface CacheBloomFilter {
+
+    /**
+     * 鍵是否可能存在。返回 false 表示該鍵一定沒有被加入過。
+     *
+     * @param key 緩存鍵 (字符串形式)
+     */
+    boolean mightContain(String key);
+
+    /**
+     * 增量加入一個鍵。過濾器尚未構建時忽略。
+     *
+     * @param key 緩存鍵 (字符串形式)
+     */
+    void put(String key);
+
+    /**
+     * 用數據源中的全部鍵重新構建過濾器，構建完成後整體替換舊的過濾器。
+     *
+     * @param keySource 全部鍵的來源
+     */
+    void rebuild(BloomFilterKeySource keySource) throws Exception;
+}
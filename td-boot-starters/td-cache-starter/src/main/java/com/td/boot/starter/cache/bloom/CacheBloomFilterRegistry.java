@@ -0,0 +1,136 @@
+package com.td.boot.starter.cache.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按緩存名稱管理布隆過濾器，並負責構建和定期重建。
+ * 所有單例 Bean 初始化完成後，為每個有 {@link BloomFilterKeySource} 的過濾器在後台執行一次構建，配置了重建間隔時按間隔重建。
+ * 新增的數據 (例如新上架的商品) 在寫入緩存之前就可能被查詢，業務代碼應在數據創建後調用 {@link #add(String, Object)}。
+ */
+@Slf4j
+public class CacheBloomFilterRegistry implements SmartInitializingSingleton {
+
+    private final Map<String, CacheBloomFilter> filters;
+    private final Map<String, Duration> rebuildIntervals;
+    private final ObjectProvider<BloomFilterKeySource> keySourceProvider;
+    private final Map<String, BloomFilterKeySource> keySources = new ConcurrentHashMap<>();
+    // 沒有任何過濾器需要構建時為 null
+    private volatile ScheduledExecutorService scheduler;
+
+    /**
+     * @param filters           緩存名稱 -> 布隆過濾器
+     * @param rebuildIntervals  緩存名稱 -> 重建間隔，未配置的過濾器只在啟動時構建一次
+     * @param keySourceProvider 全量鍵來源
+     */
+    public CacheBloomFilterRegistry(Map<String, CacheBloomFilter> filters, Map<String, Duration> rebuildIntervals,
+                                    ObjectProvider<BloomFilterKeySource> keySourceProvider) {
+        Assert.notNull(filters, "布隆過濾器不能為空");
+        Assert.notNull(rebuildIntervals, "重建間隔不能為空");
+        rebuildIntervals.forEach((cacheName, interval) ->
+                Assert.isTrue(interval.toMillis() > 0, "緩存 " + cacheName + " 的布隆過濾器重建間隔必須大於 0"));
+        this.filters = new HashMap<>(filters);
+        this.rebuildIntervals = new HashMap<>(rebuildIntervals);
+        this.keySourceProvider = keySourceProvider;
+    }
+
+    /**
+     * 緩存對應的布隆過濾器，未配置時返回 null。
+     */
+    public CacheBloomFilter getFilter(String cacheName) {
+        return filters.get(cacheName);
+    }
+
+    /**
+     * 增量加入一個存在的鍵，緩存未配置布隆過濾器時忽略。
+     *
+     * @param cacheName 緩存名稱
+     * @param key       緩存鍵
+     */
+    public void add(String cacheName, Object key) {
+        CacheBloomFilter filter = filters.get(cacheName);
+        if (filter != null) {
+            filter.put(String.valueOf(key));
+        }
+    }
+
+    /**
+     * 立即用全量鍵來源重建指定緩存的布隆過濾器。
+     *
+     * @param cacheName 緩存名稱
+     */
+    public void rebuild(String cacheName) throws Exception {
+        CacheBloomFilter filter = filters.get(cacheName);
+        Assert.notNull(filter, "緩存 " + cacheName + " 沒有配置布隆過濾器");
+        BloomFilterKeySource keySource = keySources.get(cacheName);
+        if (keySource == null) {
+            throw new IllegalStateException("緩存 " + cacheName + " 的布隆過濾器沒有對應的 BloomFilterKeySource，無法重建");
+        }
+        long start = System.nanoTime();
+        filter.rebuild(keySource);
+        log.info("緩存 {} 的布隆過濾器重建完成，耗時 {} ms", cacheName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (keySourceProvider != null) {
+            keySourceProvider.orderedStream().forEach(keySource -> {
+                if (!filters.containsKey(keySource.getCacheName())) {
+                    log.warn("緩存 {} 沒有配置布隆過濾器，忽略其 BloomFilterKeySource", keySource.getCacheName());
+                } else if (keySources.putIfAbsent(keySource.getCacheName(), keySource) != null) {
+                    throw new IllegalStateException("緩存 " + keySource.getCacheName() + " 存在多個 BloomFilterKeySource");
+                }
+            });
+        }
+        filters.keySet().stream()
+                .filter(cacheName -> !keySources.containsKey(cacheName))
+                .forEach(cacheName -> log.warn("緩存 {} 的布隆過濾器沒有對應的 BloomFilterKeySource，構建前放行所有查詢", cacheName));
+        if (keySources.isEmpty()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "TdCacheBloomFilterRebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        keySources.keySet().forEach(cacheName -> {
+            scheduler.execute(() -> rebuildQuietly(cacheName));
+            Duration interval = rebuildIntervals.get(cacheName);
+            if (interval != null) {
+                long intervalMillis = interval.toMillis();
+                scheduler.scheduleWithFixedDelay(() -> rebuildQuietly(cacheName), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void rebuildQuietly(String cacheName) {
+        try {
+            rebuild(cacheName);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("重建緩存 {} 的布隆過濾器失敗", cacheName, e);
+        }
+    }
+
+    /**
+     * 停止後台重建。
+     */
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.td.boot.starter.cache.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 保存在本節點內存中的布隆過濾器，各節點各自構建。
+ * 重建期間增量加入的鍵同時寫入正在構建的位數組，替換後不會丟失。
+ */
+public class LocalCacheBloomFilter implements CacheBloomFilter {
+
+    // AtomicLongArray 的下標為 int，位數組最多 Integer.MAX_VALUE 個 long
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final BloomFilterSpec spec;
+    // 當前使用的位數組，尚未構建時為 null
+    private volatile AtomicLongArray bits;
+    // 正在重建的位數組，沒有重建時為 null
+    private volatile AtomicLongArray rebuilding;
+
+    /**
+     * @param expectedInsertions 預計的鍵數量
+     * @param falsePositiveRate  期望的誤判率
+     */
+    public LocalCacheBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this.spec = new BloomFilterSpec(expectedInsertions, falsePositiveRate, MAX_BITS);
+    }
+
+    @Override
+    public boolean mightContain(String key) {
+        AtomicLongArray current = bits;
+        if (current == null) {
+            return true;
+        }
+        for (long index : spec.bitIndexes(key)) {
+            if ((current.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void put(String key) {
+        // 先讀 rebuilding 再讀 bits：重建完成時先替換 bits 再清空 rebuilding，兩者不會都錯過新的位數組
+        AtomicLongArray next = rebuilding;
+        AtomicLongArray current = bits;
+        if (current == null && next == null) {
+            return;
+        }
+        long[] indexes = spec.bitIndexes(key);
+        if (current != null) {
+            setBits(current, indexes);
+        }
+        if (next != null) {
+            setBits(next, indexes);
+        }
+    }
+
+    @Override
+    public synchronized void rebuild(BloomFilterKeySource keySource) throws Exception {
+        AtomicLongArray next = new AtomicLongArray((int) ((spec.getNumBits() + Long.SIZE - 1) / Long.SIZE));
+        rebuilding = next;
+        try {
+            keySource.forEachKey(key -> setBits(next, spec.bitIndexes(String.valueOf(key))));
+            bits = next;
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private static void setBits(AtomicLongArray array, long[] indexes) {
+        for (long index : indexes) {
+            long mask = 1L << index;
+            array.getAndAccumulate((int) (index >>> 6), mask, (word, m) -> word | m);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.td.boot.starter.cache.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 保存在 Redis 位圖中的布隆過濾器，所有節點共享。
+ * 查詢和增量加入各通過一次 Lua 腳本完成；重建時同一時刻只有一個節點在構建，構建到臨時位圖後通過 RENAME 整體替換。
+ * 位圖不存在 (尚未構建或被淘汰) 時放行所有查詢。
+ * 過濾器、臨時位圖和重建鎖的鍵使用相同的哈希標籤，在 Redis Cluster 中位於同一個槽。
+ */
+@Slf4j
+public class RedisCacheBloomFilter implements CacheBloomFilter {
+
+    // Redis 位圖的偏移量上限
+    private static final long MAX_BITS = 1L << 32;
+    // 重建時每個管道批次包含的鍵數量
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    // 位圖不存在時放行；任意一位為 0 時說明鍵一定不存在
+    private static final RedisScript<Long> MIGHT_CONTAIN_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return 1 end " +
+                    "for i = 1, #ARGV do if redis.call('getbit', KEYS[1], ARGV[i]) == 0 then return 0 end end " +
+                    "return 1",
+            Long.class);
+    // 只寫入已存在的位圖 (當前位圖和正在重建的位圖)，避免在尚未構建時創建出一個拒絕所有查詢的空位圖
+    private static final RedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+            "for k = 1, #KEYS do if redis.call('exists', KEYS[k]) == 1 then " +
+                    "for i = 1, #ARGV do redis.call('setbit', KEYS[k], ARGV[i], 1) end end end " +
+                    "return 1",
+            Long.class);
+    // 只有持有者才能釋放重建鎖
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final BloomFilterSpec spec;
+    private final String filterKey;
+    private final String rebuildKey;
+    private final String lockKey;
+    private final Duration rebuildLease;
+
+    /**
+     * @param redisTemplate      StringRedisTemplate
+     * @param keyPrefix          位圖的鍵前綴
+     * @param cacheName          緩存名稱
+     * @param expectedInsertions 預計的鍵數量
+     * @param falsePositiveRate  期望的誤判率
+     * @param rebuildLease       重建鎖和臨時位圖的有效期，必須大於一次重建的耗時
+     */
+    public RedisCacheBloomFilter(StringRedisTemplate redisTemplate, String keyPrefix, String cacheName,
+                                 long expectedInsertions, double falsePositiveRate, Duration rebuildLease) {
+        Assert.notNull(redisTemplate, "StringRedisTemplate 不能為空");
+        Assert.notNull(keyPrefix, "布隆過濾器的鍵前綴不能為空");
+        Assert.hasText(cacheName, "緩存名稱不能為空");
+        Assert.isTrue(rebuildLease != null && rebuildLease.toMillis() > 0, "重建鎖的有效期必須大於 0");
+        this.redisTemplate = redisTemplate;
+        this.spec = new BloomFilterSpec(expectedInsertions, falsePositiveRate, MAX_BITS);
+        this.filterKey = keyPrefix + "{" + cacheName + "}";
+        this.rebuildKey = filterKey + ":rebuild";
+        this.lockKey = filterKey + ":lock";
+        this.rebuildLease = rebuildLease;
+    }
+
+    @Override
+    public boolean mightContain(String key) {
+        try {
+            Long result = redisTemplate.execute(MIGHT_CONTAIN_SCRIPT, Collections.singletonList(filterKey), offsets(key));
+            return result == null || result != 0;
+        } catch (RuntimeException e) {
+            // 布隆過濾器不可用時放行，由緩存和數據源決定結果
+            log.warn("查詢布隆過濾器 {} 失敗，放行本次查詢: {}", filterKey, e.toString());
+            return true;
+        }
+    }
+
+    @Override
+    public void put(String key) {
+        redisTemplate.execute(PUT_SCRIPT, List.of(filterKey, rebuildKey), offsets(key));
+    }
+
+    /**
+     * 重建位圖。其他節點正在重建時直接返回。
+     */
+    @Override
+    public void rebuild(BloomFilterKeySource keySource) throws Exception {
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, rebuildLease))) {
+            log.debug("布隆過濾器 {} 正在由其他節點重建，跳過本次重建。", filterKey);
+            return;
+        }
+        try {
+            redisTemplate.delete(rebuildKey);
+            // 先創建臨時位圖，重建期間增量加入的鍵同時寫入它；節點在重建中途崩潰時臨時位圖自動過期
+            redisTemplate.opsForValue().setBit(rebuildKey, 0, false);
+            redisTemplate.expire(rebuildKey, rebuildLease);
+
+            List<String> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+            keySource.forEachKey(key -> {
+                batch.add(String.valueOf(key));
+                if (batch.size() >= REBUILD_BATCH_SIZE) {
+                    setBits(batch);
+                    batch.clear();
+                }
+            });
+            setBits(batch);
+
+            redisTemplate.rename(rebuildKey, filterKey);
+            // RENAME 會保留臨時位圖的過期時間，替換後去掉
+            redisTemplate.persist(filterKey);
+        } finally {
+            redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey), token);
+        }
+    }
+
+    private void setBits(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        byte[] rawKey = rebuildKey.getBytes(StandardCharsets.UTF_8);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                for (long index : spec.bitIndexes(key)) {
+                    connection.stringCommands().setBit(rawKey, index, true);
+                }
+            }
+            return null;
+        });
+    }
+
+    private Object[] offsets(String key) {
+        long[] indexes = spec.bitIndexes(key);
+        Object[] args = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            args[i] = String.valueOf(indexes[i]);
+        }
+        return args;
+    }
+}
@@ -5,10 +5,40 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.td.boot.starter.cache.bloom.BloomFilterCache;
+import com.td.boot.starter.cache.bloom.BloomFilterKeySource;
+import com.td.boot.starter.cache.bloom.CacheBloomFilter;
+import com.td.boot.starter.cache.bloom.CacheBloomFilterRegistry;
+import com.td.boot.starter.cache.bloom.LocalCacheBloomFilter;
+import com.td.boot.starter.cache.bloom.RedisCacheBloomFilter;
+import com.td.boot.starter.cache.invalidation.CacheInvalidationBus;
+import com.td.boot.starter.cache.loader.CacheLoadLock;
+import com.td.boot.starter.cache.metrics.CacheCompressionMetricsBinder;
+import com.td.boot.starter.cache.refresh.RefreshPolicy;
+import com.td.boot.starter.cache.refresh.RefreshableValue;
+import com.td.boot.starter.cache.serializer.CacheValueCodec;
+import com.td.boot.starter.cache.serializer.CompressingRedisSerializer;
+import com.td.boot.starter.cache.serializer.CompressionStatsRegistry;
+import com.td.boot.starter.cache.serializer.SmileCacheValueCodec;
+import com.td.boot.starter.cache.serializer.TypeAliasRegistry;
+import com.td.boot.starter.cache.serializer.VersionedCacheValueSerializer;
+import com.td.boot.starter.cache.ttl.CacheTtl;
+import com.td.boot.starter.cache.ttl.L1Expiry;
+import com.td.boot.starter.cache.ttl.L1Value;
+import com.td.boot.starter.cache.ttl.TtlAwareRedisCache;
+import com.td.boot.starter.cache.ttl.TtlJitter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -16,26 +46,48 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * td-cache-starter 的自動配置類。
  * 配置基於 Redis 的 CacheManager。
  */
+@Slf4j
 @Configuration
 // 只有當 CacheManager 和 RedisConnectionFactory 存在於 classpath 時才啟用此配置
 @ConditionalOnClass({CacheManager.class, RedisConnectionFactory.class})
@@ -64,37 +116,94 @@ public class CacheAutoConfiguration {
      */
     @Bean
     @ConditionalOnMissingBean(CacheManager.class)
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     ObjectProvider<CacheInvalidationBus> cacheInvalidationBus,
+                                     ObjectProvider<CacheLoadLock> cacheLoadLock,
+                                     ObjectProvider<CacheValueCodec> cacheValueCodecs,
+                                     ObjectProvider<CompressionStatsRegistry> compressionStatsRegistry,
+                                     ObjectProvider<CacheBloomFilterRegistry> cacheBloomFilterRegistry,
+                                     BeanFactory beanFactory) {
+        RedisSerializer<Object> valueSerializer = cacheValueSerializer(cacheValueCodecs);
+        CompressionStatsRegistry compressionStats = compressionStatsRegistry.getIfAvailable();
+        CacheBloomFilterRegistry bloomFilters = cacheBloomFilterRegistry.getIfAvailable();
+
         // 1. 從 Spring Boot 內置的 CacheProperties 獲取默認配置
         RedisCacheConfiguration defaultCacheConfiguration = RedisCacheConfiguration
                 .defaultCacheConfig()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonRedisSerializer()));
+                .serializeValuesWith(valueSerializationPair(CompressionStatsRegistry.DEFAULT_CACHE_NAME, valueSerializer, compressionStats));
 
         // 應用 Spring Boot 內置的 Redis 緩存屬性
         // 設置 TTL
-        if (this.cacheProperties.getRedis().getTimeToLive() != null) {
-            defaultCacheConfiguration = defaultCacheConfiguration.entryTtl(this.cacheProperties.getRedis().getTimeToLive());
-        } else {
-            // 如果 Spring Boot 內置屬性沒有設置 TTL，則使用 tdCacheProperties 的默認 TTL
-            defaultCacheConfiguration = defaultCacheConfiguration.entryTtl(tdCacheProperties.getDefaultExpire());
-        }
+        // 如果 Spring Boot 內置屬性沒有設置 TTL，則使用 tdCacheProperties 的默認 TTL
+        Duration defaultTtl = this.cacheProperties.getRedis().getTimeToLive() != null
+                ? this.cacheProperties.getRedis().getTimeToLive()
+                : tdCacheProperties.getDefaultExpire();
+        // 負緩存需要顯式配置 null 值的過期時間，未配置時與舊版本一樣不緩存 null 值，滾動發佈期間舊節點不會讀到 null 值標記
+        boolean negativeCaching = tdCacheProperties.isCacheNullValues() && tdCacheProperties.getNullValueTtl() != null;
+        Duration nullValueTtl = negativeCaching ? tdCacheProperties.getNullValueTtl() : null;
+        // 未單獨配置的緩存使用默認的過期時間抖動
+        CacheTtl defaultCacheTtl = new CacheTtl(defaultTtl, ttlJitter(tdCacheProperties.getDefaultTtlJitter()), nullValueTtl);
+        defaultCacheConfiguration = defaultCacheConfiguration.entryTtl(defaultCacheTtl);
 
         // 處理是否緩存空值
-        defaultCacheConfiguration = defaultCacheConfiguration.disableCachingNullValues();
+        if (!negativeCaching) {
+            defaultCacheConfiguration = defaultCacheConfiguration.disableCachingNullValues();
+        }
 
         // 處理是否使用前綴
         if (!this.cacheProperties.getRedis().isUseKeyPrefix()) {
             defaultCacheConfiguration = defaultCacheConfiguration.disableKeyPrefix();
         }
 
-        // 2. 應用 tdCacheProperties 中按緩存名稱的過期時間
+        // 2. 應用 tdCacheProperties 中按緩存名稱的過期時間、過期時間抖動和提前刷新 (僅二級緩存) 的寬限期
         Map<String, RedisCacheConfiguration> initialCacheConfigurations = new HashMap<>();
-        if (tdCacheProperties.getExpires() != null && !tdCacheProperties.getExpires().isEmpty()) {
-            RedisCacheConfiguration finalDefaultCacheConfiguration = defaultCacheConfiguration;
-            tdCacheProperties.getExpires().forEach((cacheName, expireTime) ->
-                    initialCacheConfigurations.put(cacheName, finalDefaultCacheConfiguration.entryTtl(expireTime))
-            );
+        Map<String, CacheTtl> cacheTtls = new HashMap<>();
+        Map<String, RefreshPolicy> refreshPolicies = new HashMap<>();
+        Set<String> ttlCacheNames = new HashSet<>();
+        if (tdCacheProperties.getExpires() != null) {
+            ttlCacheNames.addAll(tdCacheProperties.getExpires().keySet());
+        }
+        if (tdCacheProperties.getTtlJitter() != null) {
+            ttlCacheNames.addAll(tdCacheProperties.getTtlJitter().keySet());
+        }
+        if (tdCacheProperties.isUseCaffeine() && tdCacheProperties.getRefresh() != null) {
+            ttlCacheNames.addAll(tdCacheProperties.getRefresh().keySet());
+        }
+        for (String cacheName : ttlCacheNames) {
+            Duration ttl = defaultTtl;
+            if (tdCacheProperties.getExpires() != null && tdCacheProperties.getExpires().containsKey(cacheName)) {
+                ttl = tdCacheProperties.getExpires().get(cacheName);
+            }
+            TtlJitter jitter = defaultCacheTtl.getJitter();
+            if (tdCacheProperties.getTtlJitter() != null && tdCacheProperties.getTtlJitter().containsKey(cacheName)) {
+                jitter = ttlJitter(tdCacheProperties.getTtlJitter().get(cacheName));
+            }
+            CacheTtl cacheTtl = new CacheTtl(ttl, jitter, nullValueTtl);
+            cacheTtls.put(cacheName, cacheTtl);
+
+            // 啟用提前刷新的緩存，Redis 中的過期時間延長寬限期
+            Duration redisTtl = ttl;
+            if (tdCacheProperties.isUseCaffeine() && tdCacheProperties.getRefresh() != null && tdCacheProperties.getRefresh().containsKey(cacheName)) {
+                TdCacheProperties.RefreshProperties refreshProps = tdCacheProperties.getRefresh().get(cacheName);
+                RefreshPolicy refreshPolicy = new RefreshPolicy(ttl, refreshProps.getRefreshAheadRatio(), refreshProps.getStaleGracePeriod());
+                refreshPolicies.put(cacheName, refreshPolicy);
+                redisTtl = refreshPolicy.getPhysicalTtl();
+            }
+            initialCacheConfigurations.put(cacheName, defaultCacheConfiguration.entryTtl(new CacheTtl(redisTtl, jitter, nullValueTtl)));
+        }
+
+        // 3. 啟用壓縮時，單獨配置的緩存使用各自的壓縮閾值和統計
+        if (compressionStats != null) {
+            Set<String> cacheNames = new HashSet<>(initialCacheConfigurations.keySet());
+            if (tdCacheProperties.getCompression().getThresholds() != null) {
+                cacheNames.addAll(tdCacheProperties.getCompression().getThresholds().keySet());
+            }
+            for (String cacheName : cacheNames) {
+                RedisCacheConfiguration cacheConfiguration = initialCacheConfigurations.getOrDefault(cacheName, defaultCacheConfiguration);
+                initialCacheConfigurations.put(cacheName,
+                        cacheConfiguration.serializeValuesWith(valueSerializationPair(cacheName, valueSerializer, compressionStats)));
+            }
         }
 
         // 構建 RedisCacheWriter，用於傳遞給 RedisCacheManager 的構造函數
@@ -104,15 +213,136 @@ public class CacheAutoConfiguration {
         // 如果配置了二級緩存 (Caffeine)，則返回自定義的 CaffeineRedisCacheManager
         if (tdCacheProperties.isUseCaffeine()) {
             // 將所有計算好的配置以及 RedisCacheWriter 直接傳遞給 CaffeineRedisCacheManager
-            return new CaffeineRedisCacheManager(redisCacheWriter, defaultCacheConfiguration, initialCacheConfigurations, tdCacheProperties);
+            return new CaffeineRedisCacheManager(redisCacheWriter, redisConnectionFactory, defaultCacheConfiguration, initialCacheConfigurations,
+                    tdCacheProperties, cacheInvalidationBus.getIfAvailable(), cacheLoadLock.getIfAvailable(),
+                    defaultCacheTtl, cacheTtls, refreshPolicies, bloomFilters, beanFactory);
+        }
+
+        // 否則，返回只有 Redis 一級的 RedisCacheManager
+        return new TdRedisCacheManager(redisCacheWriter, redisConnectionFactory, defaultCacheConfiguration, initialCacheConfigurations,
+                bloomFilters);
+    }
+
+    /**
+     * 只有 Redis 一級的緩存：配置了布隆過濾器時在外層包裝 {@link BloomFilterCache}。二級緩存在 TwoLevelCache 內部於 L1 未命中後過濾。
+     *
+     * @param bloomFilters 布隆過濾器，可為 null
+     */
+    private static Cache withBloomFilter(Cache cache, CacheBloomFilterRegistry bloomFilters) {
+        if (cache == null || bloomFilters == null) {
+            return cache;
         }
+        CacheBloomFilter bloomFilter = bloomFilters.getFilter(cache.getName());
+        return bloomFilter != null ? new BloomFilterCache(cache, bloomFilter) : cache;
+    }
+
+    /**
+     * 根據配置創建過期時間抖動，未配置時返回 null。
+     */
+    private static TtlJitter ttlJitter(TdCacheProperties.TtlJitterProperties jitterProps) {
+        if (jitterProps == null) {
+            return null;
+        }
+        TtlJitter jitter = new TtlJitter(jitterProps.getRatio(), jitterProps.getRange());
+        return jitter.isEnabled() ? jitter : null;
+    }
+
+    /**
+     * 緩存值的序列化方式，啟用壓縮時在 valueSerializer 外包裝壓縮序列化器。
+     *
+     * @param cacheName        緩存名稱，用於選擇壓縮閾值和記錄統計
+     * @param compressionStats 壓縮統計，未啟用壓縮時為 null
+     */
+    private RedisSerializationContext.SerializationPair<Object> valueSerializationPair(String cacheName,
+                                                                                      RedisSerializer<Object> valueSerializer,
+                                                                                      CompressionStatsRegistry compressionStats) {
+        if (compressionStats == null) {
+            return RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer);
+        }
+        TdCacheProperties.CompressionProperties compression = tdCacheProperties.getCompression();
+        DataSize threshold = compression.getThreshold();
+        if (compression.getThresholds() != null && compression.getThresholds().containsKey(cacheName)) {
+            threshold = compression.getThresholds().get(cacheName);
+        }
+        Assert.isTrue(threshold.toBytes() > 0 && threshold.toBytes() <= Integer.MAX_VALUE, "緩存 " + cacheName + " 的壓縮閾值無效: " + threshold);
+        return RedisSerializationContext.SerializationPair.fromSerializer(
+                new CompressingRedisSerializer(valueSerializer, (int) threshold.toBytes(), compressionStats.stats(cacheName)));
+    }
+
+    /**
+     * 緩存值壓縮統計，只有啟用 td.cache.compression.enabled 時才生效。
+     */
+    @Bean
+    @ConditionalOnMissingBean(CompressionStatsRegistry.class)
+    @ConditionalOnProperty(prefix = "td.cache.compression", name = "enabled", havingValue = "true")
+    public CompressionStatsRegistry compressionStatsRegistry() {
+        return new CompressionStatsRegistry();
+    }
+
+    /**
+     * 配置緩存鍵布隆過濾器，沒有配置 td.cache.bloom-filter.caches 時不包含任何過濾器。
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(CacheBloomFilterRegistry.class)
+    public CacheBloomFilterRegistry cacheBloomFilterRegistry(RedisConnectionFactory redisConnectionFactory,
+                                                             ObjectProvider<BloomFilterKeySource> bloomFilterKeySources) {
+        TdCacheProperties.BloomFilterProperties bloomFilter = tdCacheProperties.getBloomFilter();
+        Map<String, CacheBloomFilter> filters = new HashMap<>();
+        Map<String, Duration> rebuildIntervals = new HashMap<>();
+        if (bloomFilter.getCaches() != null && !bloomFilter.getCaches().isEmpty()) {
+            StringRedisTemplate redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+            bloomFilter.getCaches().forEach((cacheName, cacheProps) -> {
+                filters.put(cacheName, switch (cacheProps.getType()) {
+                    case LOCAL -> new LocalCacheBloomFilter(cacheProps.getExpectedInsertions(), cacheProps.getFalsePositiveRate());
+                    case REDIS -> new RedisCacheBloomFilter(redisTemplate, bloomFilter.getKeyPrefix(), cacheName,
+                            cacheProps.getExpectedInsertions(), cacheProps.getFalsePositiveRate(), bloomFilter.getRebuildLease());
+                });
+                if (cacheProps.getRebuildInterval() != null) {
+                    rebuildIntervals.put(cacheName, cacheProps.getRebuildInterval());
+                }
+            });
+        }
+        return new CacheBloomFilterRegistry(filters, rebuildIntervals, bloomFilterKeySources);
+    }
+
+    /**
+     * 配置跨節點 L1 緩存失效總線。
+     * 只有啟用 Caffeine 二級緩存且沒有關閉 td.cache.invalidation.enabled 時才生效。
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(CacheInvalidationBus.class)
+    @ConditionalOnExpression("${td.cache.use-caffeine:false} && ${td.cache.invalidation.enabled:true}")
+    public CacheInvalidationBus cacheInvalidationBus(RedisConnectionFactory redisConnectionFactory) {
+        TdCacheProperties.InvalidationProperties invalidation = tdCacheProperties.getInvalidation();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        return new CacheInvalidationBus(redisTemplate, invalidation.getChannel(),
+                invalidation.getBatchInterval(), invalidation.getMaxBatchSize());
+    }
 
-        // 否則，正常構建並返回 RedisCacheManager
-        // 注意：這裡直接使用 RedisCacheManager.builder() 因為它隱式處理了 RedisCacheWriter 的創建
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(defaultCacheConfiguration)
-                .withInitialCacheConfigurations(initialCacheConfigurations)
-                .build();
+    /**
+     * 配置二級緩存加載的分佈式單飛鎖。
+     * 只有啟用 Caffeine 二級緩存且沒有關閉 td.cache.load-lock.enabled 時才生效。
+     */
+    @Bean
+    @ConditionalOnMissingBean(CacheLoadLock.class)
+    @ConditionalOnExpression("${td.cache.use-caffeine:false} && ${td.cache.load-lock.enabled:true}")
+    public CacheLoadLock cacheLoadLock(RedisConnectionFactory redisConnectionFactory) {
+        TdCacheProperties.LoadLockProperties loadLock = tdCacheProperties.getLoadLock();
+        return new CacheLoadLock(new StringRedisTemplate(redisConnectionFactory), loadLock.getKeyPrefix(),
+                loadLock.getLease(), loadLock.getWaitTimeout(), loadLock.getPollInterval());
+    }
+
+    /**
+     * 訂閱失效消息頻道的監聽容器。
+     */
+    @Bean
+    @ConditionalOnBean(CacheInvalidationBus.class) // 失效總線在上方定義，已先於此處註冊
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                            CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(cacheInvalidationBus.getChannel()));
+        return container;
     }
 
     /**
@@ -132,47 +362,197 @@ public class CacheAutoConfiguration {
         return new GenericJackson2JsonRedisSerializer(objectMapper);
     }
 
+    /**
+     * 根據 td.cache.serializer.type 創建緩存值序列化器。
+     * JSON 直接使用 jsonRedisSerializer (沒有版本頭)；其餘格式寫入帶版本頭的值，讀取時兼容 Smile、
+     * 所有 CacheValueCodec Bean 以及沒有版本頭的舊 JSON 值。
+     */
+    private RedisSerializer<Object> cacheValueSerializer(ObjectProvider<CacheValueCodec> cacheValueCodecs) {
+        TdCacheProperties.SerializerProperties serializer = tdCacheProperties.getSerializer();
+        if (serializer.getType() == TdCacheProperties.SerializerProperties.SerializerType.JSON) {
+            return jsonRedisSerializer();
+        }
+        SmileCacheValueCodec smileCodec = new SmileCacheValueCodec(new TypeAliasRegistry(serializer.getTypeAliases()),
+                serializer.getAllowedPackages());
+        List<CacheValueCodec> customCodecs = cacheValueCodecs.orderedStream().toList();
+        CacheValueCodec writer = smileCodec;
+        if (serializer.getType() == TdCacheProperties.SerializerProperties.SerializerType.CUSTOM) {
+            Assert.isTrue(customCodecs.size() == 1, "td.cache.serializer.type=CUSTOM 時必須有且只有一個 CacheValueCodec Bean，當前數量: " + customCodecs.size());
+            writer = customCodecs.get(0);
+        }
+        List<CacheValueCodec> readers = new ArrayList<>(customCodecs);
+        readers.add(smileCodec);
+        log.info("Redis 緩存值格式: {}，格式 ID: {}", serializer.getType(), writer.formatId());
+        return new VersionedCacheValueSerializer(writer, readers, jsonRedisSerializer());
+    }
+
+    /**
+     * 內部類：只有 Redis 一級的緩存管理器。
+     * 創建 {@link TtlAwareRedisCache} (null 值保存為單字節標記)，配置了布隆過濾器的緩存在外層包裝 {@link BloomFilterCache}。
+     */
+    protected static class TdRedisCacheManager extends RedisCacheManager {
+
+        private final RedisCacheWriter redisCacheWriter;
+        private final RedisConnectionFactory redisConnectionFactory;
+        // 緩存鍵布隆過濾器，可為 null
+        private final CacheBloomFilterRegistry bloomFilters;
+
+        public TdRedisCacheManager(RedisCacheWriter redisCacheWriter,
+                                   RedisConnectionFactory redisConnectionFactory,
+                                   RedisCacheConfiguration defaultCacheConfiguration,
+                                   Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                   CacheBloomFilterRegistry bloomFilters) {
+            super(redisCacheWriter, defaultCacheConfiguration, initialCacheConfigurations);
+            this.redisCacheWriter = redisCacheWriter;
+            this.redisConnectionFactory = redisConnectionFactory;
+            this.bloomFilters = bloomFilters;
+        }
+
+        @Override
+        protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+            return new TtlAwareRedisCache(name, redisCacheWriter,
+                    cacheConfiguration != null ? cacheConfiguration : getDefaultCacheConfiguration(), redisConnectionFactory);
+        }
+
+        @Override
+        protected Cache decorateCache(Cache cache) {
+            return withBloomFilter(super.decorateCache(cache), bloomFilters);
+        }
+    }
+
     /**
      * 內部類：支持 Redis + Caffeine 的二級緩存。
      * 這裡僅為示意，實際的二級緩存集成可能需要更複雜的邏輯。
      * 可以考慮使用 spring-cache-redis-caffeine 這樣的第三方庫來實現更健壯的二級緩存。
      */
-    protected static class CaffeineRedisCacheManager extends RedisCacheManager {
+    protected static class CaffeineRedisCacheManager extends RedisCacheManager implements DisposableBean {
         private final TdCacheProperties tdCacheProperties;
         // CaffeineCacheManager 負責創建 Spring 的 CaffeineCache 實例
         private final CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        // 跨節點 L1 失效總線，未啟用時為 null
+        private final CacheInvalidationBus invalidationBus;
+        // 分佈式單飛加載鎖，未啟用時為 null
+        private final CacheLoadLock loadLock;
+        // 已創建的兩級緩存，同一緩存名稱始終返回同一實例 (其中保存了進行中的加載)
+        private final Map<String, Cache> twoLevelCaches = new ConcurrentHashMap<>();
+        // 按緩存名稱的提前刷新策略
+        private final Map<String, RefreshPolicy> refreshPolicies;
+        // 異步刷新執行器，沒有緩存啟用提前刷新時為 null
+        private final ExecutorService refreshExecutor;
+        private final RedisCacheWriter redisCacheWriter;
+        // 用於讀取 Redis 條目的剩餘過期時間
+        private final RedisConnectionFactory redisConnectionFactory;
+        // 按緩存名稱的 Redis 過期時間 (含抖動)，未單獨配置的緩存使用 defaultCacheTtl
+        private final CacheTtl defaultCacheTtl;
+        private final Map<String, CacheTtl> cacheTtls;
+        // 按緩存名稱的 L1 過期策略，未單獨配置的緩存使用 defaultL1Expiry
+        private final L1Expiry defaultL1Expiry;
+        private final Map<String, L1Expiry> l1Expiries = new HashMap<>();
+        // 緩存鍵布隆過濾器，可為 null
+        private final CacheBloomFilterRegistry bloomFilters;
 
         public CaffeineRedisCacheManager(RedisCacheWriter redisCacheWriter,
+                                         RedisConnectionFactory redisConnectionFactory,
                                          RedisCacheConfiguration defaultCacheConfiguration,
                                          Map<String, RedisCacheConfiguration> initialCacheConfigurations,
-                                         TdCacheProperties tdCacheProperties) {
+                                         TdCacheProperties tdCacheProperties,
+                                         CacheInvalidationBus invalidationBus,
+                                         CacheLoadLock loadLock,
+                                         CacheTtl defaultCacheTtl,
+                                         Map<String, CacheTtl> cacheTtls,
+                                         Map<String, RefreshPolicy> refreshPolicies,
+                                         CacheBloomFilterRegistry bloomFilters,
+                                         BeanFactory beanFactory) {
             super(redisCacheWriter, defaultCacheConfiguration, initialCacheConfigurations);
             this.tdCacheProperties = tdCacheProperties;
+            this.invalidationBus = invalidationBus;
+            this.loadLock = loadLock;
+            this.redisCacheWriter = redisCacheWriter;
+            this.redisConnectionFactory = redisConnectionFactory;
+            this.defaultCacheTtl = defaultCacheTtl;
+            this.cacheTtls = cacheTtls;
+            this.refreshPolicies = refreshPolicies;
+            this.bloomFilters = bloomFilters;
+            this.refreshExecutor = refreshPolicies.isEmpty() ? null : createRefreshExecutor(tdCacheProperties.getRefreshThreads());
 
-            // 初始化 CaffeineCacheManager 的配置
+            // 未單獨配置的緩存名稱使用默認配置動態創建
+            TdCacheProperties.CaffeineProperties defaultCaffeine = tdCacheProperties.getDefaultCaffeine();
+            this.defaultL1Expiry = new L1Expiry(defaultCaffeine.getExpireAfterWrite(), defaultCaffeine.getExpireAfterAccess());
+            caffeineCacheManager.setCaffeine(caffeineBuilder(defaultCaffeine, defaultL1Expiry, beanFactory));
+            // 單獨配置的緩存名稱各自創建獨立的 Caffeine 實例
             if (tdCacheProperties.getCaffeine() != null) {
-                // 為每個緩存名稱應用 Caffeine 配置
                 tdCacheProperties.getCaffeine().forEach((cacheName, caffeineProps) -> {
-                    Caffeine<Object, Object> caffeineBuilder = Caffeine.newBuilder();
-                    if (caffeineProps.getMaximumSize() > 0) {
-                        caffeineBuilder.maximumSize(caffeineProps.getMaximumSize());
-                    }
-                    if (caffeineProps.getExpireAfterWrite() != null) {
-                        caffeineBuilder.expireAfterWrite(caffeineProps.getExpireAfterWrite());
-                    }
-                    if (caffeineProps.getExpireAfterAccess() != null) {
-                        caffeineBuilder.expireAfterAccess(caffeineProps.getExpireAfterAccess());
-                    }
-                    // 將構建好的 Caffeine 實例設置給 CaffeineCacheManager
-                    caffeineCacheManager.setCaffeine(caffeineBuilder);
-                    // 如果每個緩存名有獨立的 Caffeine 配置，這裡需要更精細的控制
-                    // 目前的 CaffeineCacheManager 只能設置一個通用的 Caffeine 實例
-                    // 如果需要為不同 cacheName 設置不同的 Caffeine 策略，則需要修改 CaffeineCacheManager 的行為，
-                    // 或手動為每個 cacheName 創建並註冊 CaffeineCache 實例
+                    L1Expiry l1Expiry = new L1Expiry(caffeineProps.getExpireAfterWrite(), caffeineProps.getExpireAfterAccess());
+                    l1Expiries.put(cacheName, l1Expiry);
+                    caffeineCacheManager.registerCustomCache(cacheName, caffeineBuilder(caffeineProps, l1Expiry, beanFactory).build());
                 });
             }
         }
 
+        /**
+         * 創建可以讀取剩餘過期時間的 RedisCache，用於對齊 L1 和 Redis 的過期時間。
+         */
+        @Override
+        protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfiguration) {
+            return new TtlAwareRedisCache(name, redisCacheWriter,
+                    cacheConfiguration != null ? cacheConfiguration : getDefaultCacheConfiguration(), redisConnectionFactory);
+        }
+
+        /**
+         * 創建異步刷新執行器。
+         * 同一個鍵同一時刻最多只有一個刷新任務，隊列已滿時放棄本次刷新，下一次讀取會再次觸發。
+         */
+        private static ExecutorService createRefreshExecutor(int threads) {
+            Assert.isTrue(threads > 0, "refreshThreads 必須大於 0");
+            return new ThreadPoolExecutor(
+                    threads,
+                    threads,
+                    60,
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(1000),
+                    r -> {
+                        Thread thread = new Thread(r, "TdCacheRefresh-" + r.hashCode());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy()
+            );
+        }
+
+        @Override
+        public void destroy() {
+            if (refreshExecutor != null) {
+                refreshExecutor.shutdownNow();
+            }
+        }
+
+        /**
+         * 根據配置創建 Caffeine 構建器。
+         * 寫入後和訪問後過期由 l1Expiry 實現，保證 L1 條目不會比 Redis 中的同一條目更晚過期。
+         */
+        private static Caffeine<Object, Object> caffeineBuilder(TdCacheProperties.CaffeineProperties caffeineProps, L1Expiry l1Expiry,
+                                                                BeanFactory beanFactory) {
+            Caffeine<Object, Object> caffeineBuilder = Caffeine.newBuilder();
+            if (caffeineProps.getMaximumWeight() > 0) {
+                Assert.hasText(caffeineProps.getWeigher(), "配置 maximumWeight 時必須同時配置 weigher");
+                @SuppressWarnings("unchecked")
+                Weigher<Object, Object> weigher = beanFactory.getBean(caffeineProps.getWeigher(), Weigher.class);
+                // L1 中保存的是包裝後的值，交給 weigher 的是原始緩存值
+                caffeineBuilder.maximumWeight(caffeineProps.getMaximumWeight())
+                        .weigher((key, value) -> weigher.weigh(key, TwoLevelCache.userValue(value)));
+            } else {
+                Assert.isTrue(!StringUtils.hasText(caffeineProps.getWeigher()), "配置 weigher 時必須同時配置 maximumWeight");
+                if (caffeineProps.getMaximumSize() > 0) {
+                    caffeineBuilder.maximumSize(caffeineProps.getMaximumSize());
+                }
+            }
+            caffeineBuilder.expireAfter(l1Expiry);
+            if (caffeineProps.isRecordStats()) {
+                caffeineBuilder.recordStats();
+            }
+            return caffeineBuilder;
+        }
+
         @Override
         public Cache getCache(String name) {
             // 從父類（RedisCacheManager）獲取 Redis 緩存
@@ -180,14 +560,23 @@ public class CacheAutoConfiguration {
 
             // 如果啟用 Caffeine，並且該緩存名有對應的 Caffeine 配置（或者通用的 Caffeine 配置）
             if (tdCacheProperties.isUseCaffeine()) {
-                // 從 CaffeineCacheManager 獲取 Caffeine 緩存
-                // 注意：這裡假設 CaffeineCacheManager 能夠基於 cacheName 返回正確的 CaffeineCache
-                // 否則，需要手動管理不同 cacheName 對應的 Caffeine 實例
+                Cache twoLevelCache = twoLevelCaches.get(name);
+                if (twoLevelCache != null) {
+                    return twoLevelCache;
+                }
+                // 從 CaffeineCacheManager 獲取 Caffeine 緩存：單獨配置的緩存返回其獨立實例，其餘按默認配置動態創建
                 Cache caffeineCache = caffeineCacheManager.getCache(name);
 
-                if (redisCache != null && caffeineCache != null) {
-                    // 返回一個兩級緩存的代理實現
-                    return new TwoLevelCache(name, caffeineCache, redisCache);
+                if (redisCache instanceof TtlAwareRedisCache ttlAwareRedisCache && caffeineCache != null) {
+                    if (invalidationBus != null) {
+                        invalidationBus.register(name, caffeineCache);
+                    }
+                    // 返回一個兩級緩存的代理實現，配置了布隆過濾器時在 L1 未命中後過濾
+                    return twoLevelCaches.computeIfAbsent(name,
+                            cacheName -> new TwoLevelCache(cacheName, caffeineCache, ttlAwareRedisCache, invalidationBus, loadLock,
+                                    cacheTtls.getOrDefault(cacheName, defaultCacheTtl), l1Expiries.getOrDefault(cacheName, defaultL1Expiry),
+                                    refreshPolicies.get(cacheName), refreshExecutor,
+                                    bloomFilters != null ? bloomFilters.getFilter(cacheName) : null));
                 }
             }
             return redisCache; // 如果不使用兩級緩存，或 Caffeine 緩存不存在，則返回 Redis 緩存
@@ -207,17 +596,133 @@ public class CacheAutoConfiguration {
     /**
      * 內部類：實現兩級緩存的具體邏輯 (Caffeine L1 + Redis L2)。
      * 負責協調讀寫操作。
+     * L1 中的鍵統一轉換為字符串形式 (與 Redis 緩存鍵的要求一致)，失效消息據此在其他節點上定位 L1 條目。
+     * get(key, valueLoader) 依次查詢 L1、Redis，都未命中時才加載：本節點內同一個鍵只有一個線程加載，
+     * 啟用分佈式單飛鎖時各節點間也只有一個節點加載，其餘節點輪詢 Redis 等待結果。
+     * 啟用提前刷新的緩存在 L1 和 Redis 中保存 {@link RefreshableValue}：到達刷新時間後讀取仍返回當前值並異步刷新，
+     * 邏輯過期後同步重新加載，加載失敗時在寬限期內返回舊值。
+     * L1 中的值包裝為 {@link L1Value}，記錄不晚於 Redis 中同一條目的過期時刻：寫入時使用本次寫入 Redis 的過期時間，
+     * 從 Redis 回填時使用 GET + PTTL 讀取到的剩餘過期時間。
+     * 允許緩存 null 值時，加載結果為 null 也寫入 Redis (使用較短的 null 值過期時間)，不存在的鍵不會每次都擊穿到數據源。
+     * 從 Redis 或數據源回填 L1 前記錄失效序號 (本節點的 put/evict/clear 加上失效總線收到的消息)，
+     * 寫入 L1 時序號已變化則只返回值、不寫入 L1，避免與失效並發時把舊值寫回 L1。
+     * 配置了布隆過濾器時只在 L1 未命中後判斷：過濾器確定不存在的鍵按緩存了 null 值返回，不再查詢 Redis，也不執行加載；
+     * L1 命中不經過過濾器，Redis 布隆過濾器不會給每次讀取增加一次網絡往返。
      */
     protected static class TwoLevelCache implements Cache {
 
+        // 過濾器確定不存在的鍵按緩存命中 null 值返回，@Cacheable 不會再調用被緩存的方法
+        private static final ValueWrapper ABSENT = new SimpleValueWrapper(null);
+
+
         private final String name;
         private final Cache caffeineCache; // L1 緩存
-        private final Cache redisCache;    // L2 緩存
+        private final TtlAwareRedisCache redisCache; // L2 緩存
+        private final CacheInvalidationBus invalidationBus; // 跨節點 L1 失效總線，可為 null
+        private final CacheLoadLock loadLock; // 分佈式單飛加載鎖，可為 null
+        private final CacheTtl cacheTtl; // Redis 過期時間 (含抖動)，啟用提前刷新時為邏輯有效期
+        private final L1Expiry l1Expiry; // L1 過期策略
+        private final RefreshPolicy refreshPolicy; // 提前刷新策略，未啟用時為 null
+        private final ExecutorService refreshExecutor; // 異步刷新執行器，未啟用提前刷新時為 null
+        private final CacheBloomFilter bloomFilter; // 緩存鍵布隆過濾器，可為 null
+        // 本節點內進行中的加載：L1 鍵 -> 加載結果
+        private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+        // 本節點內進行中的異步刷新
+        private final Set<String> inFlightRefreshes = ConcurrentHashMap.newKeySet();
+        // 本節點內 put/evict/clear 的次數，與失效總線的失效序號一起判斷回填期間是否發生過失效
+        private final AtomicLong localInvalidations = new AtomicLong();
 
-        public TwoLevelCache(String name, Cache caffeineCache, Cache redisCache) {
+        public TwoLevelCache(String name, Cache caffeineCache, TtlAwareRedisCache redisCache,
+                             CacheInvalidationBus invalidationBus, CacheLoadLock loadLock,
+                             CacheTtl cacheTtl, L1Expiry l1Expiry,
+                             RefreshPolicy refreshPolicy, ExecutorService refreshExecutor,
+                             CacheBloomFilter bloomFilter) {
+            Assert.notNull(cacheTtl, "緩存過期時間不能為空");
+            Assert.notNull(l1Expiry, "L1 過期策略不能為空");
+            Assert.isTrue(refreshPolicy == null || refreshExecutor != null, "啟用提前刷新時必須提供異步刷新執行器");
             this.name = name;
             this.caffeineCache = caffeineCache;
             this.redisCache = redisCache;
+            this.invalidationBus = invalidationBus;
+            this.loadLock = loadLock;
+            this.cacheTtl = cacheTtl;
+            this.l1Expiry = l1Expiry;
+            this.refreshPolicy = refreshPolicy;
+            this.refreshExecutor = refreshExecutor;
+            this.bloomFilter = bloomFilter;
+        }
+
+        /**
+         * 布隆過濾器是否確定該鍵不存在，未配置過濾器時返回 false。
+         */
+        private boolean definitelyAbsent(String l1Key) {
+            return bloomFilter != null && !bloomFilter.mightContain(l1Key);
+        }
+
+        /**
+         * L1 中使用的緩存鍵。
+         */
+        private static String l1Key(Object key) {
+            return String.valueOf(key);
+        }
+
+        /**
+         * 取出 L1 或 Redis 中保存的緩存值。
+         */
+        private static Object unwrap(Object stored) {
+            return stored instanceof RefreshableValue refreshable ? refreshable.getValue() : stored;
+        }
+
+        /**
+         * 取出 L1 中保存的原始緩存值 (去掉 L1 過期時刻和提前刷新的包裝)。
+         */
+        static Object userValue(Object l1Stored) {
+            return unwrap(L1Value.unwrap(l1Stored));
+        }
+
+        /**
+         * 包裝寫入 L1 的值，L1 過期時刻不晚於 Redis 中同一條目的過期時刻。
+         *
+         * @param stored           Redis 中保存的值
+         * @param l2RemainingNanos Redis 中同一條目的剩餘過期時間 (納秒)，永不過期或未寫入 Redis 時為 Long.MAX_VALUE
+         */
+        private L1Value toL1(Object stored, long l2RemainingNanos) {
+            return l1Expiry.wrap(stored, l2RemainingNanos, cacheTtl.getJitter());
+        }
+
+        /**
+         * 保存的值是否已邏輯過期，null 值 (負緩存) 和未啟用提前刷新的值不會邏輯過期。
+         */
+        private static boolean isLogicallyExpired(Object stored) {
+            return stored instanceof RefreshableValue refreshable && refreshable.isExpiredAt(System.currentTimeMillis());
+        }
+
+        /**
+         * 當前的失效序號，任何一次本節點寫入/失效或收到其他節點的失效消息都會使其變化。
+         */
+        private long invalidationSequence() {
+            long sequence = localInvalidations.get();
+            return invalidationBus != null ? sequence + invalidationBus.invalidationSequence(name) : sequence;
+        }
+
+        /**
+         * 回填 L1：讀取前記錄的失效序號已變化時放棄寫入，讀到的值可能已被失效。
+         */
+        private void backfillL1(String l1Key, L1Value l1Value, long sequence) {
+            if (invalidationSequence() == sequence) {
+                caffeineCache.put(l1Key, l1Value);
+            }
+        }
+
+        /**
+         * 讀取 Redis 中未邏輯過期的值，未命中或已邏輯過期時返回 null。
+         */
+        private L1Value freshFromRedis(Object key) {
+            TtlAwareRedisCache.TtlValueWrapper valueWrapper = redisCache.getWithTtl(key);
+            if (valueWrapper == null || isLogicallyExpired(valueWrapper.get())) {
+                return null;
+            }
+            return toL1(valueWrapper.get(), valueWrapper.getRemainingNanos());
         }
 
         @Override
@@ -233,24 +738,32 @@ public class CacheAutoConfiguration {
 
         @Override
         public ValueWrapper get(Object key) {
-            // 1. 先從 L1 Caffeine 緩存讀取
-            ValueWrapper valueWrapper = caffeineCache.get(key);
+            // 1. 先從 L1 Caffeine 緩存讀取 (邏輯過期的值視為未命中)
+            ValueWrapper valueWrapper = caffeineCache.get(l1Key(key));
             if (valueWrapper != null) {
-                // System.out.println("Cache Hit (L1-Caffeine): " + name + " -> " + key); // 可選：添加日誌
-                return valueWrapper;
+                Object stored = L1Value.unwrap(valueWrapper.get());
+                if (!isLogicallyExpired(stored)) {
+                    // System.out.println("Cache Hit (L1-Caffeine): " + name + " -> " + key); // 可選：添加日誌
+                    return new SimpleValueWrapper(unwrap(stored));
+                }
             }
 
-            // 2. L1 未命中，從 L2 Redis 緩存讀取
+            // 2. L1 未命中，布隆過濾器確定不存在的鍵不再查詢 Redis
+            if (definitelyAbsent(l1Key(key))) {
+                return ABSENT;
+            }
+            // 3. 從 L2 Redis 緩存讀取 (同時取得剩餘過期時間)
             // System.out.println("Cache Miss (L1-Caffeine), trying L2-Redis: " + name + " -> " + key); // 可選：添加日誌
-            valueWrapper = redisCache.get(key);
-            if (valueWrapper != null) {
-                // 3. L2 命中，回寫到 L1
-                caffeineCache.put(key, valueWrapper.get());
-                // System.out.println("Cache Hit (L2-Redis), put to L1: " + name + " -> " + key); // 可選：添加日誌
-            } else {
+            long sequence = invalidationSequence();
+            L1Value l1Value = freshFromRedis(key);
+            if (l1Value == null) {
                 // System.out.println("Cache Miss (L2-Redis): " + name + " -> " + key); // 可選：添加日誌
+                return null;
             }
-            return valueWrapper;
+            // 4. L2 命中，回寫到 L1，L1 中的過期時刻不晚於 Redis；讀取期間發生過失效則不回寫
+            backfillL1(l1Key(key), l1Value, sequence);
+            // System.out.println("Cache Hit (L2-Redis), put to L1: " + name + " -> " + key); // 可選：添加日誌
+            return new SimpleValueWrapper(unwrap(l1Value.getValue()));
         }
 
         @Override
@@ -264,51 +777,283 @@ public class CacheAutoConfiguration {
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public <T> T get(Object key, Callable<T> valueLoader) {
+            String l1Key = l1Key(key);
             // 1. 先從 L1 Caffeine 緩存讀取
-            T value = caffeineCache.get(key, valueLoader); // Caffeine 的 get(key, loader) 會處理回寫
-
-            if (value != null) {
-                // 如果 Caffeine 命中或通過 loader 加載了，這裡需要同步到 Redis
-                // 注意：這裡假設 Caffeine 的 valueLoader 會在不命中時調用，且其結果就是最終結果
-                // 如果 valueLoader 是從數據庫加載，那麼這個值也應該寫入 Redis
-                // 簡單起見，這裡假設 get(key, loader) 已經處理了從數據源獲取
-                // 如果 L1 命中了，就不會調用 valueLoader，直接返回
-                // 如果 L1 不命中，會調用 valueLoader，並將結果存入 L1。
-                // 此時需要將這個新加載的值也存入 L2
-                if (caffeineCache.get(key) != null && redisCache.get(key) == null) {
-                    // 只有當 Caffeine 中有而 Redis 中沒有時才往 Redis 中放
-                    // 這裡的邏輯需要更嚴謹，通常是從數據源加載後，先存 L2，再存 L1
-                    // 為了簡化，目前假設 Caffeine 的 loader 處理了數據源獲取，
-                    // 並且我們需要確保數據源加載的數據也同步到 L2。
-                    // 更好的方式是將 valueLoader 傳遞給 Redis 緩存，然後再回寫到 Caffeine。
-                    // 這裡先簡單同步：
-                    // System.out.println("Put to L2 after L1 get/load: " + name + " -> " + key); // 可選：添加日誌
-                    redisCache.put(key, value);
+            ValueWrapper valueWrapper = caffeineCache.get(l1Key);
+            L1Value stale = null;
+            if (valueWrapper != null) {
+                L1Value l1Value = (L1Value) valueWrapper.get();
+                if (!(l1Value.getValue() instanceof RefreshableValue refreshable)) {
+                    return (T) l1Value.getValue();
+                }
+                long now = System.currentTimeMillis();
+                if (!refreshable.isExpiredAt(now)) {
+                    if (refreshable.shouldRefreshAt(now)) {
+                        refreshAsync(key, l1Key, valueLoader);
+                    }
+                    return (T) refreshable.getValue();
+                }
+                // L1 中的值已邏輯過期，重新加載失敗時作為兜底值
+                stale = l1Value;
+            } else if (definitelyAbsent(l1Key)) {
+                // L1 未命中且布隆過濾器確定不存在，不查詢 Redis，也不執行加載
+                return null;
+            }
+
+            // 2. 本節點內同一個鍵只有一個線程繼續向下加載，其餘線程等待其結果
+            CompletableFuture<Object> loading = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(l1Key, loading);
+            if (existing != null) {
+                try {
+                    return (T) existing.join();
+                } catch (CompletionException e) {
+                    throw new ValueRetrievalException(key, valueLoader, e.getCause());
+                }
+            }
+            try {
+                long sequence = invalidationSequence();
+                L1Value l1Value = loadFromRedisOrSource(key, l1Key, valueLoader, stale);
+                backfillL1(l1Key, l1Value, sequence);
+                Object value = unwrap(l1Value.getValue());
+                loading.complete(value);
+                return (T) value;
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
                 }
-                return value;
+                loading.completeExceptionally(e);
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } finally {
+                inFlightLoads.remove(l1Key, loading);
             }
+        }
 
-            // 如果 L1 也沒有，則嘗試從 L2 獲取
-            T redisValue = redisCache.get(key, valueLoader); // Redis 的 get(key, loader)
-            if (redisValue != null) {
-                // 從 L2 獲取到後，回寫到 L1
-                caffeineCache.put(key, redisValue);
+        /**
+         * L1 未命中後的加載路徑：先查 Redis，仍未命中時在分佈式單飛鎖的保護下執行 valueLoader 並寫入 Redis。
+         * 未搶到鎖的節點輪詢 Redis 等待持鎖節點的結果；鎖被釋放但 Redis 中仍沒有值 (例如加載失敗或不緩存 null 值) 時重新搶鎖，
+         * 等待超時則直接加載，避免持鎖節點異常時請求被長時間阻塞。
+         * 啟用提前刷新時，Redis 中已到達刷新時間的值直接返回並觸發異步刷新；已邏輯過期的值只在加載失敗且仍在寬限期內時返回。
+         *
+         * @param stale L1 中已邏輯過期的值，可為 null
+         * @return 寫入 L1 的值，包裝了 Redis 中保存的值 (啟用提前刷新時為 {@link RefreshableValue}) 和 L1 過期時刻
+         */
+        private L1Value loadFromRedisOrSource(Object key, String l1Key, Callable<?> valueLoader, L1Value stale) throws Exception {
+            TtlAwareRedisCache.TtlValueWrapper valueWrapper = redisCache.getWithTtl(key);
+            if (valueWrapper != null) {
+                Object stored = valueWrapper.get();
+                L1Value l1Value = toL1(stored, valueWrapper.getRemainingNanos());
+                if (!(stored instanceof RefreshableValue refreshable)) {
+                    return l1Value;
+                }
+                long now = System.currentTimeMillis();
+                if (!refreshable.isExpiredAt(now)) {
+                    if (refreshable.shouldRefreshAt(now)) {
+                        refreshAsync(key, l1Key, valueLoader);
+                    }
+                    return l1Value;
+                }
+                // Redis 中的值比 L1 中的新 (或 L1 未命中)，以 Redis 中的為兜底值
+                stale = l1Value;
+            }
+            try {
+                return loadWithLock(key, l1Key, valueLoader);
+            } catch (Exception e) {
+                if (stale != null && refreshPolicy != null
+                        && refreshPolicy.canServeStale((RefreshableValue) stale.getValue(), System.currentTimeMillis())) {
+                    log.warn("緩存 {} 的鍵 {} 重新加載失敗，在寬限期內返回已過期的值: {}", name, l1Key, e.toString());
+                    return stale;
+                }
+                throw e;
+            }
+        }
+
+        private L1Value loadWithLock(Object key, String l1Key, Callable<?> valueLoader) throws Exception {
+            if (loadLock == null) {
+                return loadAndStore(key, valueLoader);
+            }
+
+            long deadline = System.nanoTime() + loadLock.getWaitTimeout().toNanos();
+            while (true) {
+                String token = loadLock.tryLock(name, l1Key);
+                if (token != null) {
+                    try {
+                        // 搶到鎖後再查一次 Redis，上一個持鎖節點可能剛寫入
+                        L1Value l1Value = freshFromRedis(key);
+                        return l1Value != null ? l1Value : loadAndStore(key, valueLoader);
+                    } finally {
+                        loadLock.unlock(name, l1Key, token);
+                    }
+                }
+                if (System.nanoTime() >= deadline) {
+                    log.warn("等待緩存 {} 的鍵 {} 加載結果超時，直接執行加載。", name, l1Key);
+                    return loadAndStore(key, valueLoader);
+                }
+                TimeUnit.MILLISECONDS.sleep(loadLock.getPollInterval().toMillis());
+                L1Value l1Value = freshFromRedis(key);
+                if (l1Value != null) {
+                    return l1Value;
+                }
+            }
+        }
+
+        /**
+         * 執行 valueLoader 並寫入 Redis。允許緩存 null 值時 null 值按 null 值的過期時間寫入，否則只寫入 L1。
+         *
+         * @return 寫入 L1 的值
+         */
+        private L1Value loadAndStore(Object key, Callable<?> valueLoader) throws Exception {
+            Object value = valueLoader.call();
+            if (value == null && !redisCache.isAllowNullValues()) {
+                return toL1(null, Long.MAX_VALUE);
+            }
+            return store(key, value);
+        }
+
+        /**
+         * 按本次寫入的過期時間 (配置的過期時間加上隨機抖動) 寫入 Redis。
+         * 啟用提前刷新時抖動作用於邏輯有效期，Redis 中的物理過期時間在此基礎上延長寬限期；null 值使用 null 值的過期時間。
+         *
+         * @return 寫入 L1 的值，L1 過期時刻不晚於本次寫入的 Redis 過期時刻
+         */
+        private L1Value store(Object key, Object value) {
+            Duration ttl = cacheTtl.next(value);
+            Object stored = toStored(value, ttl);
+            ttl = physicalTtl(value, ttl);
+            redisCache.put(key, stored, ttl);
+            return toL1(stored, remainingNanos(ttl));
+        }
+
+        /**
+         * Redis 中保存的值，啟用提前刷新時包裝為 {@link RefreshableValue}。
+         *
+         * @param ttl 本次寫入的過期時間 (含抖動)
+         */
+        private Object toStored(Object value, Duration ttl) {
+            if (refreshPolicy != null && value != null) {
+                return refreshPolicy.wrap(value, System.currentTimeMillis(), ttl);
+            }
+            return value;
+        }
+
+        /**
+         * Redis 中的物理過期時間，啟用提前刷新時在邏輯有效期的基礎上延長寬限期。
+         */
+        private Duration physicalTtl(Object value, Duration ttl) {
+            return refreshPolicy != null && value != null ? refreshPolicy.physicalTtl(ttl) : ttl;
+        }
+
+        private static long remainingNanos(Duration ttl) {
+            return ttl.isZero() || ttl.isNegative() ? Long.MAX_VALUE : ttl.toNanos();
+        }
+
+        /**
+         * 異步刷新到達刷新時間的值。
+         * 本節點內同一個鍵同一時刻只有一個刷新任務；啟用分佈式單飛鎖時，未搶到鎖說明其他節點正在刷新，直接放棄。
+         */
+        private void refreshAsync(Object key, String l1Key, Callable<?> valueLoader) {
+            if (!inFlightRefreshes.add(l1Key)) {
+                return;
+            }
+            try {
+                refreshExecutor.execute(() -> {
+                    try {
+                        refresh(key, l1Key, valueLoader);
+                    } catch (Exception e) {
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                        }
+                        log.warn("異步刷新緩存 {} 的鍵 {} 失敗: {}", name, l1Key, e.toString());
+                    } finally {
+                        inFlightRefreshes.remove(l1Key);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlightRefreshes.remove(l1Key);
+            }
+        }
+
+        private void refresh(Object key, String l1Key, Callable<?> valueLoader) throws Exception {
+            String token = null;
+            if (loadLock != null) {
+                token = loadLock.tryLock(name, l1Key);
+                if (token == null) {
+                    return;
+                }
+            }
+            try {
+                // 其他節點可能剛刷新過，Redis 中的值尚未到達刷新時間時直接使用
+                long sequence = invalidationSequence();
+                TtlAwareRedisCache.TtlValueWrapper valueWrapper = redisCache.getWithTtl(key);
+                if (valueWrapper != null && valueWrapper.get() instanceof RefreshableValue refreshable
+                        && System.currentTimeMillis() < refreshable.getRefreshAt()) {
+                    backfillL1(l1Key, toL1(refreshable, valueWrapper.getRemainingNanos()), sequence);
+                    return;
+                }
+                backfillL1(l1Key, loadAndStore(key, valueLoader), sequence);
+                if (invalidationBus != null) {
+                    invalidationBus.publishEvict(name, l1Key);
+                }
+            } finally {
+                if (token != null) {
+                    loadLock.unlock(name, l1Key, token);
+                }
             }
-            return redisValue;
         }
 
         @Override
         public void put(Object key, Object value) {
             // 寫入操作：同時更新 L1 和 L2
             // System.out.println("Put to L1 & L2: " + name + " -> " + key); // 可選：添加日誌
-            redisCache.put(key, value);
-            caffeineCache.put(key, value);
+            L1Value l1Value = store(key, value);
+            if (bloomFilter != null && value != null) {
+                bloomFilter.put(l1Key(key));
+            }
+            // 先遞增失效序號，並發回填中讀到的舊值不會覆蓋本次寫入
+            localInvalidations.incrementAndGet();
+            caffeineCache.put(l1Key(key), l1Value);
+
+            // 通知其他節點失效此 key，它們下次讀取時從 Redis 獲取新值
+            if (invalidationBus != null) {
+                invalidationBus.publishEvict(name, l1Key(key));
+            }
+        }
 
-            // TODO: 在分佈式環境下，當數據通過此服務寫入 Redis 後，
-            //  需要通知其他服務實例的 Caffeine 緩存將此 key 失效。
-            //  這通常需要通過 Redis Pub/Sub 機制來實現。
-            //  例如：redisTemplate.convertAndSend("cache:invalidate", key);
+        /**
+         * 只在 Redis 中不存在該鍵時寫入。
+         * 不能使用默認實現 (先 get 再 put)：過濾器中還沒有的鍵 get 直接返回 ABSENT，值永遠寫不進去，鍵也永遠不會加入過濾器。
+         * 因此不經過布隆過濾器，直接以 SET NX 按本次寫入的過期時間 (含抖動) 寫入 Redis，寫入成功後與 put 一樣加入過濾器、更新 L1 並通知其他節點。
+         */
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            String l1Key = l1Key(key);
+            if (value == null && !redisCache.isAllowNullValues()) {
+                // 與 RedisCache 一致，不緩存 null 值時只返回已有的值
+                TtlAwareRedisCache.TtlValueWrapper existing = redisCache.getWithTtl(key);
+                return existing != null ? new SimpleValueWrapper(unwrap(existing.get())) : null;
+            }
+            Duration ttl = cacheTtl.next(value);
+            Object stored = toStored(value, ttl);
+            ttl = physicalTtl(value, ttl);
+            ValueWrapper existing = redisCache.putIfAbsent(key, stored, ttl);
+            if (existing != null) {
+                Object existingValue = unwrap(existing.get());
+                // 已有的值可能由未經過濾器的途徑寫入，補加入過濾器
+                if (bloomFilter != null && existingValue != null) {
+                    bloomFilter.put(l1Key);
+                }
+                return new SimpleValueWrapper(existingValue);
+            }
+            if (bloomFilter != null && value != null) {
+                bloomFilter.put(l1Key);
+            }
+            localInvalidations.incrementAndGet();
+            caffeineCache.put(l1Key, toL1(stored, remainingNanos(ttl)));
+            if (invalidationBus != null) {
+                invalidationBus.publishEvict(name, l1Key);
+            }
+            return null;
         }
 
         @Override
@@ -316,8 +1061,11 @@ public class CacheAutoConfiguration {
             // 驅逐操作：同時從 L1 和 L2 移除
             // System.out.println("Evict from L1 & L2: " + name + " -> " + key); // 可選：添加日誌
             redisCache.evict(key);
-            caffeineCache.evict(key);
-            // TODO: 類似 put 操作，也需要發送消息通知其他節點失效此 key
+            localInvalidations.incrementAndGet();
+            caffeineCache.evict(l1Key(key));
+            if (invalidationBus != null) {
+                invalidationBus.publishEvict(name, l1Key(key));
+            }
         }
 
         @Override
@@ -325,9 +1073,29 @@ public class CacheAutoConfiguration {
             // 清除操作：同時清除 L1 和 L2
             // System.out.println("Clear L1 & L2: " + name); // 可選：添加日誌
             redisCache.clear();
+            localInvalidations.incrementAndGet();
             caffeineCache.clear();
-            // TODO: 類似 put 操作，也需要發送消息通知其他節點清除整個緩存
+            if (invalidationBus != null) {
+                invalidationBus.publishClear(name);
+            }
         }
     }
 
+    /**
+     * 緩存指標配置，僅在類路徑存在 Micrometer 時生效。
+     */
+    @Configuration
+    @ConditionalOnClass(MeterBinder.class)
+    @ConditionalOnExpression("${td.cache.metrics-enabled:true} && ${td.cache.compression.enabled:false}")
+    static class CacheCompressionMetricsConfiguration {
+
+        /**
+         * 配置緩存值壓縮指標綁定器，由 Spring Boot Actuator 在創建 MeterRegistry 時綁定。
+         */
+        @Bean
+        @ConditionalOnMissingBean(CacheCompressionMetricsBinder.class)
+        public CacheCompressionMetricsBinder cacheCompressionMetricsBinder(CompressionStatsRegistry compressionStatsRegistry) {
+            return new CacheCompressionMetricsBinder(compressionStatsRegistry);
+        }
+    }
 }
@@ -3,8 +3,10 @@ package com.td.boot.starter.cache.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -25,10 +27,18 @@ public class TdCacheProperties {
 
     /**
      * 是否允許緩存空值，防止緩存穿透。
-     * 默認為 true。
+     * 默認為 true，但只有同時配置了 nullValueTtl 才真正寫入 null 值，否則與舊版本一樣不緩存 null 值。
      */
     private boolean cacheNullValues = true;
 
+    /**
+     * null 值 (負緩存) 的過期時間，默認不配置 (不啟用負緩存)。
+     * 配置後且 cacheNullValues 為 true 時，null 值在 Redis 中保存為單字節標記並按此時間過期。
+     * null 值標記不能被仍在運行舊版本的節點讀取，滾動發佈時應先全量發佈再配置。
+     * 應遠小於正常值的過期時間：數據被創建後，如果沒有同時寫入緩存或加入布隆過濾器，最多要等這麼久才能被讀到。
+     */
+    private Duration nullValueTtl;
+
     /**
      * 是否使用 Caffeine 作為二級緩存。
      * 默認為 false。
@@ -47,20 +57,109 @@ public class TdCacheProperties {
      */
     private Map<String, Duration> expires;
 
+    /**
+     * 按緩存名稱配置過期時間的隨機抖動。
+     * Key 為緩存名稱，同時作用於 Redis 和 Caffeine 的過期時間。
+     */
+    private Map<String, TtlJitterProperties> ttlJitter;
+
+    /**
+     * 未在 ttlJitter 中單獨配置的緩存使用的默認過期時間抖動，默認不抖動。
+     */
+    private TtlJitterProperties defaultTtlJitter = new TtlJitterProperties();
+
     /**
      * 按緩存名稱配置 Caffeine 的相關屬性。
+     * 每個緩存名稱擁有獨立的 Caffeine 實例，互不影響。
      */
     private Map<String, CaffeineProperties> caffeine;
 
+    /**
+     * 未在 caffeine 中單獨配置的緩存使用的默認 Caffeine 屬性。
+     */
+    private CaffeineProperties defaultCaffeine = new CaffeineProperties();
+
+    /**
+     * 二級緩存的跨節點 L1 失效配置。
+     */
+    private InvalidationProperties invalidation = new InvalidationProperties();
+
+    /**
+     * 二級緩存加載 (get(key, valueLoader)) 的分佈式單飛鎖配置。
+     */
+    private LoadLockProperties loadLock = new LoadLockProperties();
+
+    /**
+     * 按緩存名稱配置提前刷新 (僅 useCaffeine 為 true 時生效)。
+     * Key 為緩存名稱，未配置的緩存不做提前刷新。
+     * 只有通過 get(key, valueLoader) 讀取 (例如 @Cacheable(sync = true)) 時才能觸發刷新。
+     */
+    private Map<String, RefreshProperties> refresh;
+
+    /**
+     * 異步刷新緩存的線程數。
+     */
+    private int refreshThreads = 4;
+
+    /**
+     * Redis 緩存值的序列化配置。
+     */
+    private SerializerProperties serializer = new SerializerProperties();
+
+    /**
+     * Redis 緩存值的壓縮配置。
+     */
+    private CompressionProperties compression = new CompressionProperties();
+
+    /**
+     * 緩存鍵布隆過濾器配置。
+     */
+    private BloomFilterProperties bloomFilter = new BloomFilterProperties();
+
+    /**
+     * 是否在類路徑存在 Micrometer 時註冊緩存指標。
+     */
+    private boolean metricsEnabled = true;
+
+    @Data
+    public static class TtlJitterProperties {
+        /**
+         * 按比例抖動：實際過期時間在 [ttl, ttl * (1 + ratio)] 之間隨機，例如 0.1。默認 0 (不按比例抖動)。
+         */
+        private double ratio = 0;
+
+        /**
+         * 按絕對範圍抖動：實際過期時間在 [ttl, ttl + range] 之間隨機。與 ratio 只能配置其一。
+         */
+        private Duration range;
+    }
+
     @Data
     public static class CaffeineProperties {
         /**
-         * 緩存的最大條目數。
+         * 緩存的最大條目數，配置了 maximumWeight 時不生效。
          */
         private long maximumSize = 10000;
 
+        /**
+         * 緩存的最大總權重，大於 0 時按權重淘汰，必須同時配置 weigher。
+         */
+        private long maximumWeight = 0;
+
+        /**
+         * 計算條目權重的 Weigher Bean 名稱 (com.github.benmanes.caffeine.cache.Weigher)，
+         * 例如按值的估算字節數計算權重，用於按內存而不是條目數限制 L1。
+         */
+        private String weigher;
+
+        /**
+         * 是否記錄命中率等統計信息。
+         */
+        private boolean recordStats = false;
+
         /**
          * 緩存條目的過期時間 (寫入後)。
+         * 作為二級緩存時，L1 條目的過期時間不會晚於 Redis 中同一條目的剩餘過期時間。
          */
         private Duration expireAfterWrite;
 
@@ -69,4 +168,192 @@ public class TdCacheProperties {
          */
         private Duration expireAfterAccess;
     }
+
+    @Data
+    public static class InvalidationProperties {
+        /**
+         * 是否啟用跨節點 L1 失效 (僅 useCaffeine 為 true 時生效)。
+         * 啟用後 put/evict/clear 會通過 Redis Pub/Sub 通知其他節點丟棄 L1 中的對應條目。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 失效消息使用的 Redis 頻道。
+         */
+        private String channel = "td:cache:invalidation";
+
+        /**
+         * 合併發送失效消息的時間間隔，也是其他節點 L1 可能返回舊數據的額外時長。
+         */
+        private Duration batchInterval = Duration.ofMillis(10);
+
+        /**
+         * 單條失效消息最多攜帶的緩存鍵數量，待發送數量達到此值時立即發送。
+         */
+        private int maxBatchSize = 500;
+    }
+
+    @Data
+    public static class LoadLockProperties {
+        /**
+         * 是否啟用分佈式單飛加載 (僅 useCaffeine 為 true 時生效)。
+         * 啟用後 L1、Redis 都未命中時只有搶到鎖的節點執行加載，其餘節點輪詢 Redis 等待結果。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 鎖的 Redis 鍵前綴，完整的鍵為 前綴 + 緩存名稱 + ":" + 緩存鍵。
+         */
+        private String keyPrefix = "td:cache:lock:";
+
+        /**
+         * 鎖的租約時長，應略大於加載的正常耗時；持鎖節點崩潰時最多阻塞其他節點這麼久。
+         */
+        private Duration lease = Duration.ofSeconds(5);
+
+        /**
+         * 未搶到鎖時等待結果的最長時間，超時後直接執行加載。
+         */
+        private Duration waitTimeout = Duration.ofSeconds(3);
+
+        /**
+         * 等待結果時輪詢 Redis 的間隔。
+         */
+        private Duration pollInterval = Duration.ofMillis(20);
+    }
+
+    @Data
+    public static class RefreshProperties {
+        /**
+         * 寫入後經過 TTL 的多少比例開始提前刷新，取值 (0, 1]，為 1 時不提前刷新。
+         * 到達刷新時間後讀取仍返回當前值，同時在後台異步重新加載；同一個鍵同一時刻只有一個節點、一個線程在刷新。
+         */
+        private double refreshAheadRatio = 0.8;
+
+        /**
+         * 邏輯過期後的寬限期，默認 0 (不啟用)。
+         * 邏輯過期後讀取會同步重新加載，加載失敗時在寬限期內返回舊值；Redis 中條目的實際過期時間相應延長。
+         */
+        private Duration staleGracePeriod = Duration.ZERO;
+    }
+
+    @Data
+    public static class SerializerProperties {
+        /**
+         * 寫入 Redis 緩存值使用的格式。
+         * 帶版本頭的格式 (SMILE / CUSTOM) 在讀取時兼容所有已知格式以及舊的 JSON 值，可以直接從 JSON 切換；
+         * 但切換後寫入的值不能被仍在運行舊版本的節點讀取，滾動發佈時應先全量發佈再切換。
+         */
+        private SerializerType type = SerializerType.JSON;
+
+        /**
+         * 類型別名：Key 為別名 (不能包含 '.')，Value 為完整類名，僅 SMILE 格式生效。
+         * 序列化時用別名代替完整類名寫入類型信息，例如 product -> com.example.ProductDTO。
+         * 已寫入 Redis 的別名不能再改指向其他類型。
+         */
+        private Map<String, String> typeAliases;
+
+        /**
+         * SMILE 格式反序列化時額外允許的包名前綴，例如 com.example.dto。僅 SMILE 格式生效。
+         * 反序列化只接受已註冊別名的類型、JDK 常用的集合 / 時間 / 數值類型、本 Starter 的內部類型以及這裡配置的包，
+         * 其餘類型標識一律拒絕，避免 Redis 中被寫入的惡意類名觸發任意類的反序列化。
+         */
+        private List<String> allowedPackages;
+
+        /**
+         * 緩存值格式枚舉。
+         */
+        public enum SerializerType {
+            /**
+             * 帶類型信息的 Jackson JSON，沒有版本頭，與 td-redis-starter 中 RedisTemplate 的值格式一致。
+             */
+            JSON,
+            /**
+             * 帶版本頭的 Jackson Smile 二進制格式。
+             */
+            SMILE,
+            /**
+             * 帶版本頭、使用唯一一個自定義 CacheValueCodec Bean 寫入。
+             */
+            CUSTOM
+        }
+    }
+
+    @Data
+    public static class CompressionProperties {
+        /**
+         * 是否對大體積的緩存值做 LZ4 壓縮。
+         * 開啟前寫入的值仍可讀取；但開啟後寫入的壓縮值不能被仍在運行舊版本的節點讀取，滾動發佈時應先全量發佈再開啟。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 默認的壓縮閾值，序列化後不小於此大小的值才壓縮。
+         */
+        private DataSize threshold = DataSize.ofKilobytes(4);
+
+        /**
+         * 按緩存名稱配置不同的壓縮閾值。
+         * Key 為緩存名稱，Value 為壓縮閾值。
+         */
+        private Map<String, DataSize> thresholds;
+    }
+
+    @Data
+    public static class BloomFilterProperties {
+        /**
+         * REDIS 類型布隆過濾器的鍵前綴，完整的鍵為 前綴 + "{" + 緩存名稱 + "}"。
+         */
+        private String keyPrefix = "td:cache:bloom:";
+
+        /**
+         * REDIS 類型布隆過濾器的重建鎖和臨時位圖的有效期，必須大於一次重建的耗時。
+         */
+        private Duration rebuildLease = Duration.ofMinutes(10);
+
+        /**
+         * 按緩存名稱配置布隆過濾器，未配置的緩存不做過濾。
+         * 過濾器確定不存在的鍵直接按緩存了 null 值返回，不查詢 Redis，也不執行加載；
+         * 需要一個對應緩存名稱的 BloomFilterKeySource Bean 提供全量鍵，構建完成前放行所有查詢。
+         */
+        private Map<String, BloomFilterCacheProperties> caches;
+    }
+
+    @Data
+    public static class BloomFilterCacheProperties {
+        /**
+         * 布隆過濾器的保存位置。
+         */
+        private BloomFilterType type = BloomFilterType.LOCAL;
+
+        /**
+         * 預計的鍵數量，實際數量超過後誤判率會上升。
+         */
+        private long expectedInsertions = 1_000_000;
+
+        /**
+         * 期望的誤判率，取值 (0, 1)。誤判的鍵照常查詢緩存和數據源。
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * 定期重建的間隔，未配置時只在啟動時構建一次。
+         * 布隆過濾器不支持刪除，重建可以清除已刪除的鍵，也可以補上遺漏的增量加入。
+         */
+        private Duration rebuildInterval;
+
+        /**
+         * 布隆過濾器保存位置枚舉。
+         */
+        public enum BloomFilterType {
+            /**
+             * 每個節點在內存中各自構建。
+             */
+            LOCAL,
+            /**
+             * 保存在 Redis 位圖中，所有節點共享，同一時刻只有一個節點重建。
+             */
+            REDIS
+        }
+    }
 }
@@ -0,0 +1,272 @@
+package com.td.boot.starter.cache.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基於 Redis Pub/Sub 的 L1 緩存失效總線。
+ * 本節點對二級緩存執行 put/evict/clear 後，通過總線通知其他節點丟棄各自 L1 (Caffeine) 中的對應條目，
+ * 使 L1 可以配置較長的過期時間而不會長時間返回舊數據。
+ * <ul>
+ *     <li>批量：失效操作先進入待發送集合，每隔 batchInterval 或累計達到 maxBatchSize 時合併成消息發送；</li>
+ *     <li>去重：同一緩存鍵在一個批次內只發送一次，整體清空的緩存不再發送其單個鍵；</li>
+ *     <li>忽略自身：消息攜帶發送節點 ID，節點收到自己發出的消息時直接跳過。</li>
+ * </ul>
+ * 失效消息是盡力而為的：Redis 斷開期間的消息會丟失，此時仍依賴 L1 的過期時間兜底。
+ * <p>
+ * 每個緩存維護一個失效序號，收到失效消息時先遞增序號再移除 L1 條目。從 Redis 回填 L1 的一方在讀取 Redis 之前記錄序號，
+ * 寫入 L1 前序號已變化則放棄回填，避免把失效消息之前讀到的舊值寫回 L1。
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final int maxBatchSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 本節點的 L1 緩存：緩存名稱 -> L1 緩存
+    private final Map<String, Cache> localCaches = new ConcurrentHashMap<>();
+    // 按緩存名稱的失效序號，每處理一次該緩存的失效操作遞增一次
+    private final Map<String, AtomicLong> invalidationSequences = new ConcurrentHashMap<>();
+
+    // 待發送的失效操作，由 pendingLock 保護
+    private final Object pendingLock = new Object();
+    private Map<String, Set<String>> pendingEvictions = new LinkedHashMap<>();
+    private Set<String> pendingClears = new LinkedHashSet<>();
+    private int pendingCount;
+
+    private final ScheduledExecutorService scheduler;
+    // 是否已提交了一次因批次已滿觸發的立即發送
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    /**
+     * @param redisTemplate 用於發送消息的 StringRedisTemplate
+     * @param channel       失效消息頻道
+     * @param batchInterval 合併發送的時間間隔
+     * @param maxBatchSize  單條消息最多攜帶的緩存鍵數量，待發送數量達到此值時立即發送
+     */
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel, Duration batchInterval, int maxBatchSize) {
+        Assert.notNull(redisTemplate, "StringRedisTemplate 不能為空");
+        Assert.hasText(channel, "失效消息頻道不能為空");
+        Assert.isTrue(batchInterval != null && !batchInterval.isNegative() && !batchInterval.isZero(), "合併發送的時間間隔必須大於 0");
+        Assert.isTrue(maxBatchSize > 0, "單條消息最多攜帶的緩存鍵數量必須大於 0");
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "CacheInvalidationBus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, batchInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("緩存失效總線已啟動，節點 ID: {}，頻道: {}", nodeId, channel);
+    }
+
+    /**
+     * 失效消息頻道。
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * 本節點 ID。
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 註冊本節點的 L1 緩存，收到其他節點的失效消息時從中移除條目。
+     */
+    public void register(String cacheName, Cache localCache) {
+        invalidationSequences.putIfAbsent(cacheName, new AtomicLong());
+        localCaches.putIfAbsent(cacheName, localCache);
+    }
+
+    /**
+     * 指定緩存當前的失效序號。回填 L1 前後兩次讀取的序號不同，說明期間收到了該緩存的失效消息。
+     */
+    public long invalidationSequence(String cacheName) {
+        AtomicLong sequence = invalidationSequences.get(cacheName);
+        return sequence != null ? sequence.get() : 0L;
+    }
+
+    /**
+     * 遞增失效序號，必須在移除 L1 條目之前調用。
+     */
+    private void markInvalidated(String cacheName) {
+        invalidationSequences.computeIfAbsent(cacheName, name -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * 通知其他節點失效指定緩存鍵。
+     *
+     * @param cacheName 緩存名稱
+     * @param key       緩存鍵 (字符串形式，與 L1 中的鍵一致)
+     */
+    public void publishEvict(String cacheName, String key) {
+        boolean full;
+        synchronized (pendingLock) {
+            if (pendingClears.contains(cacheName)) {
+                return; // 本批次已整體清空該緩存
+            }
+            if (pendingEvictions.computeIfAbsent(cacheName, name -> new LinkedHashSet<>()).add(key)) {
+                pendingCount++;
+            }
+            full = pendingCount >= maxBatchSize;
+        }
+        if (full) {
+            flushSoon();
+        }
+    }
+
+    /**
+     * 通知其他節點整體清空指定緩存。
+     */
+    public void publishClear(String cacheName) {
+        synchronized (pendingLock) {
+            Set<String> keys = pendingEvictions.remove(cacheName);
+            if (keys != null) {
+                pendingCount -= keys.size();
+            }
+            pendingClears.add(cacheName);
+        }
+    }
+
+    /**
+     * 發送所有待發送的失效操作。
+     */
+    public void flush() {
+        Map<String, Set<String>> evictions;
+        Set<String> clears;
+        synchronized (pendingLock) {
+            if (pendingEvictions.isEmpty() && pendingClears.isEmpty()) {
+                return;
+            }
+            evictions = pendingEvictions;
+            clears = pendingClears;
+            pendingEvictions = new LinkedHashMap<>();
+            pendingClears = new LinkedHashSet<>();
+            pendingCount = 0;
+        }
+        for (CacheInvalidationMessage message : toMessages(evictions, clears)) {
+            try {
+                redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+            } catch (Exception e) {
+                log.warn("發送緩存失效消息失敗，其他節點的 L1 緩存將在過期後才會更新。", e);
+            }
+        }
+    }
+
+    /**
+     * 按 maxBatchSize 把待發送的失效操作拆分成消息，整體清空操作放在第一條消息中。
+     */
+    private List<CacheInvalidationMessage> toMessages(Map<String, Set<String>> evictions, Set<String> clears) {
+        List<CacheInvalidationMessage> messages = new ArrayList<>();
+        Map<String, List<String>> batch = new LinkedHashMap<>();
+        Set<String> batchClears = clears;
+        int size = 0;
+        for (Map.Entry<String, Set<String>> entry : evictions.entrySet()) {
+            for (String key : entry.getValue()) {
+                batch.computeIfAbsent(entry.getKey(), name -> new ArrayList<>()).add(key);
+                if (++size >= maxBatchSize) {
+                    messages.add(new CacheInvalidationMessage(nodeId, batch, batchClears));
+                    batch = new LinkedHashMap<>();
+                    batchClears = Collections.emptySet();
+                    size = 0;
+                }
+            }
+        }
+        if (!batch.isEmpty() || !batchClears.isEmpty()) {
+            messages.add(new CacheInvalidationMessage(nodeId, batch, batchClears));
+        }
+        return messages;
+    }
+
+    /**
+     * 批次已滿時提交一次立即發送，避免待發送集合無限增長。
+     */
+    private void flushSoon() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            } catch (Exception e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 接收其他節點的失效消息，從本節點的 L1 緩存中移除對應條目。
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheInvalidationMessage invalidation;
+        try {
+            invalidation = objectMapper.readValue(message.getBody(), CacheInvalidationMessage.class);
+        } catch (Exception e) {
+            log.warn("無法解析緩存失效消息，已忽略。", e);
+            return;
+        }
+        if (nodeId.equals(invalidation.getSender())) {
+            return; // 自己發出的消息
+        }
+        Set<String> cleared = new HashSet<>();
+        if (invalidation.getClears() != null) {
+            for (String cacheName : invalidation.getClears()) {
+                Cache cache = localCaches.get(cacheName);
+                if (cache != null) {
+                    markInvalidated(cacheName);
+                    cache.clear();
+                    cleared.add(cacheName);
+                }
+            }
+        }
+        if (invalidation.getEvictions() != null) {
+            invalidation.getEvictions().forEach((cacheName, keys) -> {
+                Cache cache = localCaches.get(cacheName);
+                if (cache != null && !cleared.contains(cacheName)) {
+                    markInvalidated(cacheName);
+                    keys.forEach(cache::evict);
+                }
+            });
+        }
+    }
+
+    /**
+     * 停止定時發送，並發送剩餘的失效操作。
+     */
+    public void close() {
+        scheduler.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,33 @@
+package com.td.boot.starter.cache.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 緩存失效消息，一條消息攜帶一批已去重的失效操作。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage {
+
+    /**
+     * 發送消息的節點 ID，接收方據此忽略自己發出的消息。
+     */
+    private String sender;
+
+    /**
+     * 需要失效的緩存鍵：緩存名稱 -> 緩存鍵 (字符串形式)。
+     */
+    private Map<String, List<String>> evictions;
+
+    /**
+     * 需要整體清空的緩存名稱。
+     */
+    private Set<String> clears;
+}
@@ -0,0 +1,88 @@
+package com.td.boot.starter.cache.loader;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * 緩存加載的分佈式單飛鎖。
+ * 二級緩存都未命中時，各節點中只有搶到鎖的一個去執行數據源加載並寫入 Redis，其餘節點輪詢 Redis 等待結果，
+ * 避免熱點鍵過期時所有節點同時擊穿到數據庫。
+ * 鎖帶有較短的租約，持鎖節點崩潰或加載超時後鎖自動過期，其他節點可以接手加載。
+ */
+public class CacheLoadLock {
+
+    // 只有持有者才能釋放鎖，避免租約過期後誤刪其他節點的鎖
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final Duration lease;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+
+    /**
+     * @param redisTemplate StringRedisTemplate
+     * @param keyPrefix     鎖的鍵前綴
+     * @param lease         鎖的租約時長
+     * @param waitTimeout   未搶到鎖時等待結果的最長時間
+     * @param pollInterval  等待期間輪詢 Redis 的間隔
+     */
+    public CacheLoadLock(StringRedisTemplate redisTemplate, String keyPrefix, Duration lease, Duration waitTimeout, Duration pollInterval) {
+        Assert.notNull(redisTemplate, "StringRedisTemplate 不能為空");
+        Assert.notNull(keyPrefix, "鎖的鍵前綴不能為空");
+        Assert.isTrue(lease != null && lease.toMillis() > 0, "鎖的租約時長必須大於 0");
+        Assert.isTrue(waitTimeout != null && !waitTimeout.isNegative(), "等待結果的最長時間不能小於 0");
+        Assert.isTrue(pollInterval != null && pollInterval.toMillis() > 0, "輪詢間隔必須大於 0");
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.lease = lease;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * 嘗試獲取鎖。
+     *
+     * @param cacheName 緩存名稱
+     * @param key       緩存鍵 (字符串形式)
+     * @return 鎖令牌，未搶到鎖時返回 null
+     */
+    public String tryLock(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, lease);
+        return Boolean.TRUE.equals(locked) ? token : null;
+    }
+
+    /**
+     * 釋放鎖，只有令牌匹配時才會刪除。
+     */
+    public void unlock(String cacheName, String key, String token) {
+        redisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey(cacheName, key)), token);
+    }
+
+    /**
+     * 未搶到鎖時等待結果的最長時間。
+     */
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    /**
+     * 等待期間輪詢 Redis 的間隔。
+     */
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    private String lockKey(String cacheName, String key) {
+        return keyPrefix + cacheName + ":" + key;
+    }
+}
@@ -0,0 +1,71 @@
+package com.td.boot.starter.cache.metrics;
+
+import com.td.boot.starter.cache.serializer.CompressionStats;
+import com.td.boot.starter.cache.serializer.CompressionStatsRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 緩存值壓縮的 Micrometer 指標綁定器 (按 cache 標籤)。
+ * 包括壓縮、解壓的次數和耗時，跳過壓縮的次數，壓縮前後的字節數以及累計壓縮率。
+ */
+public class CacheCompressionMetricsBinder implements MeterBinder {
+
+    private static final String PREFIX = "td.cache.compression";
+
+    private final CompressionStatsRegistry statsRegistry;
+
+    public CacheCompressionMetricsBinder(CompressionStatsRegistry statsRegistry) {
+        Assert.notNull(statsRegistry, "CompressionStatsRegistry 不能為空");
+        this.statsRegistry = statsRegistry;
+    }
+
+    /**
+     * 為已創建的統計綁定指標，並監聽之後創建的統計。
+     * 監聽與遍歷之間新創建的統計可能被綁定兩次，Micrometer 對相同名稱和標籤的指標只保留第一個，不影響結果。
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        statsRegistry.addRegistrationListener((cacheName, stats) -> bindStats(registry, cacheName, stats));
+        statsRegistry.getStats().forEach((cacheName, stats) -> bindStats(registry, cacheName, stats));
+    }
+
+    private void bindStats(MeterRegistry registry, String cacheName, CompressionStats stats) {
+        Tags tags = Tags.of("cache", cacheName);
+        FunctionTimer.builder(PREFIX + ".compress", stats,
+                        CompressionStats::getCompressCount, CompressionStats::getCompressTimeNanos, TimeUnit.NANOSECONDS)
+                .description("壓縮寫入的緩存值數量和壓縮耗時")
+                .tags(tags)
+                .register(registry);
+        FunctionTimer.builder(PREFIX + ".decompress", stats,
+                        CompressionStats::getDecompressCount, CompressionStats::getDecompressTimeNanos, TimeUnit.NANOSECONDS)
+                .description("解壓讀取的緩存值數量和解壓耗時")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".skipped", stats, CompressionStats::getSkippedCount)
+                .description("小於閾值或不可壓縮、原樣寫入的緩存值數量")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".raw.bytes", stats, CompressionStats::getRawBytes)
+                .description("被壓縮的緩存值在壓縮前的字節數")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".compressed.bytes", stats, CompressionStats::getCompressedBytes)
+                .description("被壓縮的緩存值在壓縮後的字節數")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + ".ratio", stats, CompressionStats::getCompressionRatio)
+                .description("累計壓縮率 (壓縮後字節數 / 壓縮前字節數)")
+                .tags(tags)
+                .register(registry);
+    }
+}
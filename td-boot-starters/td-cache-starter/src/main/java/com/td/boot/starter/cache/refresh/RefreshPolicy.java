@@ -0,0 +1,62 @@
+package com.td.boot.starter.cache.refresh;
+
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 單個緩存的提前刷新策略。
+ */
+@Getter
+public class RefreshPolicy {
+
+    // 緩存的邏輯有效期
+    private final Duration ttl;
+    // 寫入後經過 ttl * refreshAheadRatio 時開始異步刷新
+    private final double refreshAheadRatio;
+    // 邏輯過期後，加載失敗時仍可返回舊值的寬限期
+    private final Duration staleGracePeriod;
+
+    public RefreshPolicy(Duration ttl, double refreshAheadRatio, Duration staleGracePeriod) {
+        Assert.isTrue(ttl != null && !ttl.isNegative() && !ttl.isZero(), "啟用提前刷新的緩存必須配置大於 0 的過期時間");
+        Assert.isTrue(refreshAheadRatio > 0 && refreshAheadRatio <= 1, "refreshAheadRatio 必須在 (0, 1] 之間");
+        Assert.isTrue(staleGracePeriod != null && !staleGracePeriod.isNegative(), "staleGracePeriod 不能為負數");
+        this.ttl = ttl;
+        this.refreshAheadRatio = refreshAheadRatio;
+        this.staleGracePeriod = staleGracePeriod;
+    }
+
+    /**
+     * 包裝在 now 時刻寫入的緩存值。
+     *
+     * @param ttl 本次寫入的邏輯有效期 (配置的過期時間加上隨機抖動)
+     */
+    public RefreshableValue wrap(Object value, long now, Duration ttl) {
+        long ttlMillis = ttl.toMillis();
+        return new RefreshableValue(value, now + (long) (ttlMillis * refreshAheadRatio), now + ttlMillis);
+    }
+
+    /**
+     * Redis 中的物理過期時間：邏輯有效期加上寬限期。
+     */
+    public Duration getPhysicalTtl() {
+        return physicalTtl(ttl);
+    }
+
+    /**
+     * 本次寫入在 Redis 中的物理過期時間。
+     *
+     * @param ttl 本次寫入的邏輯有效期
+     */
+    public Duration physicalTtl(Duration ttl) {
+        return ttl.plus(staleGracePeriod);
+    }
+
+    /**
+     * 已邏輯過期的值在 now 時刻是否仍在寬限期內。
+     */
+    public boolean canServeStale(RefreshableValue value, long now) {
+        return now < value.getExpireAt() + staleGracePeriod.toMillis();
+    }
+}
@@ -0,0 +1,45 @@
+package com.td.boot.starter.cache.refresh;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 啟用提前刷新的緩存在 L1 和 Redis 中保存的值。
+ * 除緩存值外記錄邏輯上的刷新時間和過期時間 (毫秒時間戳)，Redis 中的物理過期時間為邏輯過期時間加上寬限期，
+ * 因此邏輯過期後仍可以在寬限期內作為加載失敗時的兜底值。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshableValue {
+
+    /**
+     * 緩存值。
+     */
+    private Object value;
+
+    /**
+     * 到達此時間後讀取時觸發異步刷新。
+     */
+    private long refreshAt;
+
+    /**
+     * 邏輯過期時間，到達後不再直接返回，只在加載失敗時作為兜底值。
+     */
+    private long expireAt;
+
+    /**
+     * 是否已經邏輯過期。
+     */
+    public boolean isExpiredAt(long now) {
+        return now >= expireAt;
+    }
+
+    /**
+     * 是否應該觸發異步刷新 (未過期但已到達刷新時間)。
+     */
+    public boolean shouldRefreshAt(long now) {
+        return now >= refreshAt && now < expireAt;
+    }
+}
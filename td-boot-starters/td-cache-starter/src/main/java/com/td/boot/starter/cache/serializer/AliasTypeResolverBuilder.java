@@ -0,0 +1,93 @@
+package com.td.boot.starter.cache.serializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * 與 activateDefaultTyping(NON_FINAL) 相同的默認類型信息，但已註冊別名的類型寫入別名而不是完整類名。
+ * 保留了現有 JSON 格式對多態和集合元素類型的處理方式，只縮短了類型標識。
+ * 按類名解析的類型標識交給 subtypeValidator 校驗，未被允許的類型在反序列化時直接拒絕。
+ */
+class AliasTypeResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient TypeAliasRegistry registry;
+
+    AliasTypeResolverBuilder(TypeAliasRegistry registry, PolymorphicTypeValidator subtypeValidator) {
+        super(ObjectMapper.DefaultTyping.NON_FINAL, subtypeValidator);
+        this.registry = registry;
+        init(JsonTypeInfo.Id.CLASS, null);
+        inclusion(JsonTypeInfo.As.WRAPPER_ARRAY);
+    }
+
+    @Override
+    protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType, PolymorphicTypeValidator subtypeValidator,
+                                        Collection<NamedType> subtypes, boolean forSer, boolean forDeser) {
+        TypeIdResolver delegate = super.idResolver(config, baseType, subtypeValidator, subtypes, forSer, forDeser);
+        return new AliasTypeIdResolver(delegate, registry, baseType);
+    }
+
+    /**
+     * 先按別名解析，未註冊的類型交給 Jackson 默認的類名解析器。
+     */
+    private static class AliasTypeIdResolver implements TypeIdResolver {
+
+        private final TypeIdResolver delegate;
+        private final TypeAliasRegistry registry;
+        private final JavaType baseType;
+
+        AliasTypeIdResolver(TypeIdResolver delegate, TypeAliasRegistry registry, JavaType baseType) {
+            this.delegate = delegate;
+            this.registry = registry;
+            this.baseType = baseType;
+        }
+
+        @Override
+        public void init(JavaType baseType) {
+            delegate.init(baseType);
+        }
+
+        @Override
+        public String idFromValue(Object value) {
+            String alias = registry.aliasOf(value.getClass());
+            return alias != null ? alias : delegate.idFromValue(value);
+        }
+
+        @Override
+        public String idFromValueAndType(Object value, Class<?> suggestedType) {
+            String alias = registry.aliasOf(suggestedType);
+            return alias != null ? alias : delegate.idFromValueAndType(value, suggestedType);
+        }
+
+        @Override
+        public String idFromBaseType() {
+            return delegate.idFromBaseType();
+        }
+
+        @Override
+        public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+            Class<?> type = registry.classOf(id);
+            return type != null ? context.constructSpecializedType(baseType, type) : delegate.typeFromId(context, id);
+        }
+
+        @Override
+        public String getDescForKnownTypeIds() {
+            return delegate.getDescForKnownTypeIds();
+        }
+
+        @Override
+        public JsonTypeInfo.Id getMechanism() {
+            return JsonTypeInfo.Id.CUSTOM;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.td.boot.starter.cache.serializer;
+
+/**
+ * 緩存值編解碼器 SPI。
+ * 每個編解碼器對應一種二進制格式，格式 ID 寫入值的頭部，讀取時按格式 ID 選擇編解碼器，
+ * 因此切換格式後舊格式的值仍可讀取，可以平滑遷移。
+ * 自定義編解碼器註冊為 Spring Bean，並配置 td.cache.serializer.type=CUSTOM 即可作為寫入格式。
+ */
+public interface CacheValueCodec {
+
+    /**
+     * 格式 ID，寫入值的頭部。
+     * 同一格式不兼容的新版本必須使用新的 ID；內置格式使用 1~63，自定義格式應使用 64~127。
+     */
+    byte formatId();
+
+    /**
+     * 編碼緩存值。
+     *
+     * @param value 緩存值，不為 null
+     * @return 編碼後的字節 (不含頭部)
+     */
+    byte[] encode(Object value) throws Exception;
+
+    /**
+     * 解碼緩存值。
+     *
+     * @param bytes  包含頭部的完整字節
+     * @param offset 數據部分的起始位置
+     * @param length 數據部分的長度
+     * @return 緩存值
+     */
+    Object decode(byte[] bytes, int offset, int length) throws Exception;
+}
@@ -0,0 +1,111 @@
+package com.td.boot.starter.cache.serializer;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * 對大體積緩存值做 LZ4 壓縮的序列化器裝飾器。
+ * 序列化結果不小於閾值時壓縮，寫入格式：MARKER(1) | 原始長度(4) | LZ4 塊；
+ * 其餘值 (以及壓縮後體積沒有減小的值) 原樣寫入。讀取時只有首字節為 MARKER 的值需要解壓，
+ * 其餘值直接交給被裝飾的序列化器，因此開啟壓縮前寫入的值仍可讀取。
+ * MARKER 與帶類型的 JSON 以及 {@link VersionedCacheValueSerializer} 的版本頭都不衝突。
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MARKER = (byte) 0xC8;
+    private static final int HEADER_LENGTH = 5;
+    // Redis 字符串值的上限，解壓前據此校驗原始長度，避免損壞的數據申請過大的數組
+    private static final int MAX_VALUE_LENGTH = 512 * 1024 * 1024;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final RedisSerializer<Object> delegate;
+    private final int threshold;
+    private final CompressionStats stats;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    // 安全解壓器會校驗輸入邊界，不會因為損壞的數據越界讀寫
+    private final LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+
+    /**
+     * @param delegate  被裝飾的序列化器
+     * @param threshold 壓縮閾值 (字節)，序列化結果不小於此值時才壓縮
+     * @param stats     壓縮統計
+     */
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int threshold, CompressionStats stats) {
+        Assert.notNull(delegate, "被裝飾的序列化器不能為空");
+        Assert.isTrue(threshold > 0, "壓縮閾值必須大於 0");
+        Assert.notNull(stats, "壓縮統計不能為空");
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.stats = stats;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] raw = delegate.serialize(value);
+        if (raw == null || raw.length < threshold) {
+            stats.recordSkipped();
+            return raw;
+        }
+        long start = System.nanoTime();
+        byte[] buffer = new byte[HEADER_LENGTH + compressor.maxCompressedLength(raw.length)];
+        int compressedLength = compressor.compress(raw, 0, raw.length, buffer, HEADER_LENGTH, buffer.length - HEADER_LENGTH);
+        if (HEADER_LENGTH + compressedLength >= raw.length) {
+            // 不可壓縮的數據 (例如已經壓縮過的內容) 原樣寫入
+            stats.recordSkipped();
+            return raw;
+        }
+        buffer[0] = MARKER;
+        writeInt(buffer, 1, raw.length);
+        byte[] bytes = Arrays.copyOf(buffer, HEADER_LENGTH + compressedLength);
+        stats.recordCompress(raw.length, bytes.length, System.nanoTime() - start);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MARKER) {
+            return delegate.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("壓縮的緩存值頭部不完整");
+        }
+        int rawLength = readInt(bytes, 1);
+        if (rawLength <= 0 || rawLength > MAX_VALUE_LENGTH) {
+            throw new SerializationException("壓縮的緩存值原始長度無效: " + rawLength);
+        }
+        long start = System.nanoTime();
+        byte[] raw = new byte[rawLength];
+        int decompressedLength;
+        try {
+            decompressedLength = decompressor.decompress(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, raw, 0);
+        } catch (RuntimeException e) {
+            throw new SerializationException("緩存值解壓失敗", e);
+        }
+        if (decompressedLength != rawLength) {
+            throw new SerializationException("緩存值解壓後長度不一致，期望 " + rawLength + "，實際 " + decompressedLength);
+        }
+        stats.recordDecompress(System.nanoTime() - start);
+        return delegate.deserialize(raw);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24)
+                | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8)
+                | (bytes[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,92 @@
+package com.td.boot.starter.cache.serializer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 單個緩存的值壓縮統計。
+ * 序列化器只在 LongAdder 上累加，由指標綁定器以函數式指標讀取。
+ */
+public class CompressionStats {
+
+    private final LongAdder compressCount = new LongAdder();
+    private final LongAdder compressTimeNanos = new LongAdder();
+    private final LongAdder decompressCount = new LongAdder();
+    private final LongAdder decompressTimeNanos = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    // 被壓縮的值在壓縮前、後的累計字節數
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+
+    void recordCompress(int rawLength, int compressedLength, long nanos) {
+        compressCount.increment();
+        compressTimeNanos.add(nanos);
+        rawBytes.add(rawLength);
+        compressedBytes.add(compressedLength);
+    }
+
+    void recordDecompress(long nanos) {
+        decompressCount.increment();
+        decompressTimeNanos.add(nanos);
+    }
+
+    void recordSkipped() {
+        skippedCount.increment();
+    }
+
+    /**
+     * 壓縮後寫入的值的數量。
+     */
+    public long getCompressCount() {
+        return compressCount.sum();
+    }
+
+    /**
+     * 壓縮的累計耗時 (納秒)，包含壓縮後因為體積沒有減小而放棄的值。
+     */
+    public long getCompressTimeNanos() {
+        return compressTimeNanos.sum();
+    }
+
+    /**
+     * 解壓讀取的值的數量。
+     */
+    public long getDecompressCount() {
+        return decompressCount.sum();
+    }
+
+    /**
+     * 解壓的累計耗時 (納秒)。
+     */
+    public long getDecompressTimeNanos() {
+        return decompressTimeNanos.sum();
+    }
+
+    /**
+     * 小於閾值或壓縮後體積沒有減小、以原始字節寫入的值的數量。
+     */
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    /**
+     * 被壓縮的值在壓縮前的累計字節數。
+     */
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    /**
+     * 被壓縮的值在壓縮後的累計字節數。
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /**
+     * 累計壓縮率 (壓縮後字節數 / 壓縮前字節數)，尚未壓縮過任何值時為 1。
+     */
+    public double getCompressionRatio() {
+        long raw = rawBytes.sum();
+        return raw == 0 ? 1.0 : (double) compressedBytes.sum() / raw;
+    }
+}
@@ -0,0 +1,54 @@
+package com.td.boot.starter.cache.serializer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * 按緩存名稱保存值壓縮統計。
+ * 未單獨配置的緩存共用同一個序列化器，其統計記錄在 {@link #DEFAULT_CACHE_NAME} 下。
+ */
+public class CompressionStatsRegistry {
+
+    /**
+     * 未單獨配置的緩存共用的統計名稱。
+     */
+    public static final String DEFAULT_CACHE_NAME = "_default";
+
+    private final Map<String, CompressionStats> stats = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, CompressionStats>> registrationListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 獲取緩存的壓縮統計，不存在時創建並通知監聽器。
+     */
+    public CompressionStats stats(String cacheName) {
+        CompressionStats existing = stats.get(cacheName);
+        if (existing != null) {
+            return existing;
+        }
+        CompressionStats created = new CompressionStats();
+        existing = stats.putIfAbsent(cacheName, created);
+        if (existing != null) {
+            return existing;
+        }
+        registrationListeners.forEach(listener -> listener.accept(cacheName, created));
+        return created;
+    }
+
+    /**
+     * 當前所有緩存的壓縮統計 (只讀視圖)。
+     */
+    public Map<String, CompressionStats> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * 監聽之後新創建的壓縮統計，用於為其綁定指標。
+     */
+    public void addRegistrationListener(BiConsumer<String, CompressionStats> listener) {
+        registrationListeners.add(listener);
+    }
+}
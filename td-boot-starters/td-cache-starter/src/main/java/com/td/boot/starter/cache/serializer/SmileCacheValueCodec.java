@@ -0,0 +1,100 @@
+package com.td.boot.starter.cache.serializer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基於 Jackson Smile (二進制 JSON) 的緩存值編解碼器。
+ * 與現有 JSON 格式使用相同的可見性和默認類型規則，因此無需改動緩存值類型；
+ * 二進制編碼、重複屬性名和字符串的回引用，以及類型別名共同縮小了值的體積並降低了解析開銷。
+ * 反序列化時忽略未知屬性，便於在類型增刪字段後讀取舊值。
+ * <p>
+ * 反序列化只接受已註冊別名的類型、{@link #DEFAULT_ALLOWED_PACKAGES} 中的類型以及額外配置的包，
+ * 其餘類型標識 (包括未註冊的別名) 一律拒絕；緩存值類型必須註冊別名或放在允許的包中，否則寫入後無法讀取。
+ */
+public class SmileCacheValueCodec implements CacheValueCodec {
+
+    /**
+     * Smile 格式第 1 版的格式 ID。
+     */
+    public static final byte FORMAT_ID = 1;
+
+    /**
+     * 默認允許反序列化的包：JDK 常用的集合、時間和數值類型，以及本 Starter 寫入的包裝類型 (例如提前刷新的 RefreshableValue)。
+     */
+    public static final List<String> DEFAULT_ALLOWED_PACKAGES = List.of(
+            "java.util.", "java.time.", "java.math.", "com.td.boot.starter.cache.", "org.springframework.cache.support.");
+
+    private final ObjectMapper objectMapper;
+
+    public SmileCacheValueCodec(TypeAliasRegistry registry) {
+        this(registry, Collections.emptyList());
+    }
+
+    /**
+     * @param registry        類型別名註冊表
+     * @param allowedPackages 額外允許反序列化的包名前綴，可為空
+     */
+    public SmileCacheValueCodec(TypeAliasRegistry registry, Collection<String> allowedPackages) {
+        Assert.notNull(registry, "類型別名註冊表不能為空");
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        this.objectMapper = new ObjectMapper(smileFactory);
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.setDefaultTyping(new AliasTypeResolverBuilder(registry, typeValidator(registry, allowedPackages)));
+    }
+
+    /**
+     * 構建反序列化時的類型校驗器：已註冊別名的類型、數組、java.lang 中的數值包裝類型以及允許的包。
+     */
+    private static PolymorphicTypeValidator typeValidator(TypeAliasRegistry registry, Collection<String> allowedPackages) {
+        BasicPolymorphicTypeValidator.Builder builder = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType(new BasicPolymorphicTypeValidator.TypeMatcher() {
+                    @Override
+                    public boolean match(MapperConfig<?> config, Class<?> type) {
+                        return registry.isRegistered(type)
+                                || (Number.class.isAssignableFrom(type) && type.getName().startsWith("java.lang."));
+                    }
+                })
+                .allowIfSubTypeIsArray();
+        DEFAULT_ALLOWED_PACKAGES.forEach(builder::allowIfSubType);
+        if (allowedPackages != null) {
+            for (String allowedPackage : allowedPackages) {
+                Assert.isTrue(StringUtils.hasText(allowedPackage), "允許反序列化的包名不能為空");
+                // 統一以 "." 結尾，避免 com.example 匹配到 com.examplehack
+                builder.allowIfSubType(allowedPackage.endsWith(".") ? allowedPackage : allowedPackage + ".");
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public byte formatId() {
+        return FORMAT_ID;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws Exception {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes, int offset, int length) throws Exception {
+        return objectMapper.readValue(bytes, offset, length, Object.class);
+    }
+}
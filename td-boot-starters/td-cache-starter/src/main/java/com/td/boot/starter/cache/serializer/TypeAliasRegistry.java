@@ -0,0 +1,60 @@
+package com.td.boot.starter.cache.serializer;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 類型別名註冊表。
+ * 為常用的緩存值類型 (例如商品、SKU DTO) 配置簡短的別名，序列化時寫入別名而不是完整類名，
+ * 未註冊的類型仍寫入完整類名。別名一旦寫入 Redis 就不能再改指向其他類型。
+ */
+public class TypeAliasRegistry {
+
+    private final Map<String, Class<?>> aliasToClass;
+    private final Map<Class<?>, String> classToAlias;
+
+    /**
+     * @param aliases 別名 -> 類名
+     */
+    public TypeAliasRegistry(Map<String, String> aliases) {
+        Map<String, Class<?>> aliasToClass = new HashMap<>();
+        Map<Class<?>, String> classToAlias = new HashMap<>();
+        if (aliases != null) {
+            ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+            aliases.forEach((alias, className) -> {
+                // 類名總是包含 "."，不含 "." 的別名不會與未註冊類型的類名衝突
+                Assert.isTrue(alias != null && !alias.isEmpty() && alias.indexOf('.') < 0, "類型別名不能為空且不能包含 '.': " + alias);
+                Class<?> type = ClassUtils.resolveClassName(className, classLoader);
+                Assert.isTrue(classToAlias.putIfAbsent(type, alias) == null, "類型 " + className + " 重複註冊了別名");
+                aliasToClass.put(alias, type);
+            });
+        }
+        this.aliasToClass = Collections.unmodifiableMap(aliasToClass);
+        this.classToAlias = Collections.unmodifiableMap(classToAlias);
+    }
+
+    /**
+     * 獲取類型的別名，未註冊時返回 null。
+     */
+    public String aliasOf(Class<?> type) {
+        return classToAlias.get(type);
+    }
+
+    /**
+     * 類型是否註冊了別名。
+     */
+    public boolean isRegistered(Class<?> type) {
+        return classToAlias.containsKey(type);
+    }
+
+    /**
+     * 獲取別名對應的類型，未註冊時返回 null。
+     */
+    public Class<?> classOf(String alias) {
+        return aliasToClass.get(alias);
+    }
+}
@@ -0,0 +1,88 @@
+package com.td.boot.starter.cache.serializer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.Assert;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 帶版本頭的緩存值序列化器。
+ * 寫入格式：MAGIC(1) | formatId(1) | 編解碼器輸出。
+ * 讀取時按 formatId 選擇編解碼器；沒有版本頭的值視為舊的 JSON 格式，交給 legacySerializer 處理，
+ * 因此從 JSON 切換到其他格式時無需清空 Redis，舊值在過期前仍可正常讀取。
+ */
+public class VersionedCacheValueSerializer implements RedisSerializer<Object> {
+
+    // JSON 文本不會以該字節開頭，用於區分帶版本頭的值和舊的 JSON 值
+    static final byte MAGIC = (byte) 0xC7;
+    private static final int HEADER_LENGTH = 2;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final CacheValueCodec writer;
+    private final Map<Byte, CacheValueCodec> readers = new HashMap<>();
+    private final RedisSerializer<Object> legacySerializer;
+
+    /**
+     * @param writer           寫入使用的編解碼器
+     * @param readers          可讀取的編解碼器 (包含 writer)
+     * @param legacySerializer 讀取沒有版本頭的舊值
+     */
+    public VersionedCacheValueSerializer(CacheValueCodec writer, Collection<? extends CacheValueCodec> readers,
+                                         RedisSerializer<Object> legacySerializer) {
+        Assert.notNull(writer, "寫入使用的編解碼器不能為空");
+        Assert.notNull(legacySerializer, "舊格式序列化器不能為空");
+        this.writer = writer;
+        this.legacySerializer = legacySerializer;
+        registerReader(writer);
+        readers.forEach(this::registerReader);
+    }
+
+    private void registerReader(CacheValueCodec codec) {
+        CacheValueCodec existing = readers.putIfAbsent(codec.formatId(), codec);
+        Assert.isTrue(existing == null || existing == codec,
+                "緩存值編解碼器格式 ID 重複: " + codec.formatId() + " (" + existing + ", " + codec + ")");
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        byte[] payload;
+        try {
+            payload = writer.encode(value);
+        } catch (Exception e) {
+            throw new SerializationException("緩存值序列化失敗: " + value.getClass().getName(), e);
+        }
+        byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+        bytes[0] = MAGIC;
+        bytes[1] = writer.formatId();
+        System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("緩存值版本頭不完整");
+        }
+        CacheValueCodec codec = readers.get(bytes[1]);
+        if (codec == null) {
+            throw new SerializationException("未知的緩存值格式 ID: " + bytes[1]);
+        }
+        try {
+            return codec.decode(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        } catch (Exception e) {
+            throw new SerializationException("緩存值反序列化失敗，格式 ID: " + bytes[1], e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.td.boot.starter.cache.ttl;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 單個緩存的 Redis 過期時間：配置的過期時間加上隨機抖動，每次寫入重新取值。
+ * null 值 (負緩存) 使用單獨的、通常更短的過期時間，不做抖動。
+ */
+public class CacheTtl implements RedisCacheWriter.TtlFunction {
+
+    private final Duration ttl;
+    private final TtlJitter jitter; // 可為 null
+    private final Duration nullValueTtl; // 可為 null
+
+    /**
+     * @param ttl    配置的過期時間，為 0 表示永不過期
+     * @param jitter 隨機抖動，可為 null
+     */
+    public CacheTtl(Duration ttl, TtlJitter jitter) {
+        this(ttl, jitter, null);
+    }
+
+    /**
+     * @param ttl          配置的過期時間，為 0 表示永不過期
+     * @param jitter       隨機抖動，可為 null
+     * @param nullValueTtl null 值的過期時間，為 null 時與非 null 值相同
+     */
+    public CacheTtl(Duration ttl, TtlJitter jitter, Duration nullValueTtl) {
+        Assert.notNull(ttl, "過期時間不能為空");
+        Assert.isTrue(nullValueTtl == null || nullValueTtl.toMillis() > 0, "null 值的過期時間必須大於 0");
+        this.ttl = ttl;
+        this.jitter = jitter;
+        this.nullValueTtl = nullValueTtl;
+    }
+
+    /**
+     * 配置的過期時間 (不含抖動)。
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * 隨機抖動，未配置時為 null。
+     */
+    public TtlJitter getJitter() {
+        return jitter;
+    }
+
+    /**
+     * 本次寫入使用的過期時間。
+     */
+    public Duration next() {
+        return jitter != null ? jitter.apply(ttl) : ttl;
+    }
+
+    /**
+     * 本次寫入 value 使用的過期時間，null 值使用 null 值的過期時間。
+     */
+    public Duration next(Object value) {
+        if (nullValueTtl != null && (value == null || value instanceof NullValue)) {
+            return nullValueTtl;
+        }
+        return next();
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        return next(value);
+    }
+}
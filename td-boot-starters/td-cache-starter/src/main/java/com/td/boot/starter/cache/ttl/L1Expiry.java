@@ -0,0 +1,60 @@
+package com.td.boot.starter.cache.ttl;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+
+/**
+ * 二級緩存 L1 (Caffeine) 的過期策略。
+ * 代替 expireAfterWrite / expireAfterAccess：條目在寫入時確定最遲過期時刻 (寫入後過期時間加抖動，且不晚於 Redis 中的剩餘過期時間)，
+ * 訪問後過期只在該時刻之前滑動，因此 L1 條目不會比 Redis 中的同一條目更晚過期。
+ */
+public class L1Expiry implements Expiry<Object, Object> {
+
+    // 寫入後過期時間 (納秒)，未配置時為 Long.MAX_VALUE
+    private final long writeNanos;
+    // 訪問後過期時間 (納秒)，未配置時為 Long.MAX_VALUE
+    private final long accessNanos;
+
+    public L1Expiry(Duration expireAfterWrite, Duration expireAfterAccess) {
+        this.writeNanos = expireAfterWrite != null ? expireAfterWrite.toNanos() : L1Value.UNBOUNDED;
+        this.accessNanos = expireAfterAccess != null ? expireAfterAccess.toNanos() : L1Value.UNBOUNDED;
+    }
+
+    /**
+     * 包裝寫入 L1 的值。
+     *
+     * @param value            L1 中保存的值
+     * @param l2RemainingNanos Redis 中同一條目的剩餘過期時間 (納秒)，永不過期時為 Long.MAX_VALUE
+     * @param jitter           寫入後過期時間的隨機抖動，可為 null
+     */
+    public L1Value wrap(Object value, long l2RemainingNanos, TtlJitter jitter) {
+        long ttl = jitter != null ? jitter.applyNanos(writeNanos) : writeNanos;
+        long remaining = Math.min(ttl, l2RemainingNanos);
+        return new L1Value(value, remaining == L1Value.UNBOUNDED ? L1Value.UNBOUNDED : System.nanoTime() + remaining);
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        if (value instanceof L1Value l1Value) {
+            return Math.min(accessNanos, l1Value.remainingNanos(currentTime));
+        }
+        return Math.min(accessNanos, writeNanos);
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        if (accessNanos == L1Value.UNBOUNDED) {
+            return currentDuration;
+        }
+        if (value instanceof L1Value l1Value) {
+            return Math.min(accessNanos, l1Value.remainingNanos(currentTime));
+        }
+        return Math.min(accessNanos, currentDuration);
+    }
+}
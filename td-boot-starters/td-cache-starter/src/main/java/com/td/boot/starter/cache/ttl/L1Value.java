@@ -0,0 +1,39 @@
+package com.td.boot.starter.cache.ttl;
+
+/**
+ * 二級緩存 L1 (Caffeine) 中保存的值，記錄該條目最遲的過期時刻 (System.nanoTime)，
+ * 由 {@link L1Expiry} 保證 L1 條目不會比 Redis 中的同一條目更晚過期。
+ */
+public final class L1Value {
+
+    /**
+     * 沒有過期時刻限制。
+     */
+    static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private final Object value;
+    private final long deadlineNanos;
+
+    L1Value(Object value, long deadlineNanos) {
+        this.value = value;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * 距離過期時刻的剩餘納秒數，沒有限制時為 Long.MAX_VALUE。
+     */
+    long remainingNanos(long currentTime) {
+        return deadlineNanos == UNBOUNDED ? UNBOUNDED : Math.max(0, deadlineNanos - currentTime);
+    }
+
+    /**
+     * 取出 L1 中保存的值。
+     */
+    public static Object unwrap(Object stored) {
+        return stored instanceof L1Value l1Value ? l1Value.value : stored;
+    }
+}
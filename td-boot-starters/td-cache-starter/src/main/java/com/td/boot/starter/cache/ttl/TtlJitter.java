@@ -0,0 +1,63 @@
+package com.td.boot.starter.cache.ttl;
+
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 過期時間隨機抖動。
+ * 在配置的過期時間上隨機增加 [0, ratio * ttl] 或 [0, range] 的時長，只延長不縮短，
+ * 使同一時刻批量寫入的鍵分散在一段時間內過期，避免同時回源。
+ */
+public class TtlJitter {
+
+    // 按比例抖動，為 0 時使用 rangeNanos
+    private final double ratio;
+    // 按絕對範圍抖動 (納秒)
+    private final long rangeNanos;
+
+    /**
+     * @param ratio 按比例抖動，取值 [0, 1]
+     * @param range 按絕對範圍抖動，可為 null；與 ratio 只能配置其一
+     */
+    public TtlJitter(double ratio, Duration range) {
+        Assert.isTrue(ratio >= 0 && ratio <= 1, "過期時間抖動比例必須在 [0, 1] 之間");
+        Assert.isTrue(range == null || !range.isNegative(), "過期時間抖動範圍不能為負數");
+        Assert.isTrue(ratio == 0 || range == null || range.isZero(), "過期時間抖動只能配置比例或絕對範圍之一");
+        this.ratio = ratio;
+        this.rangeNanos = range == null ? 0 : range.toNanos();
+    }
+
+    /**
+     * 是否實際產生抖動。
+     */
+    public boolean isEnabled() {
+        return ratio > 0 || rangeNanos > 0;
+    }
+
+    /**
+     * 對過期時間 (納秒) 增加隨機抖動，ttlNanos 不大於 0 (永不過期) 或為 Long.MAX_VALUE 時原樣返回。
+     */
+    public long applyNanos(long ttlNanos) {
+        if (ttlNanos <= 0 || ttlNanos == Long.MAX_VALUE) {
+            return ttlNanos;
+        }
+        long bound = ratio > 0 ? (long) (ttlNanos * ratio) : rangeNanos;
+        if (bound <= 0) {
+            return ttlNanos;
+        }
+        long jitter = ThreadLocalRandom.current().nextLong(bound + 1);
+        return ttlNanos > Long.MAX_VALUE - jitter ? Long.MAX_VALUE : ttlNanos + jitter;
+    }
+
+    /**
+     * 對過期時間增加隨機抖動。
+     */
+    public Duration apply(Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return ttl;
+        }
+        return Duration.ofNanos(applyNanos(ttl.toNanos()));
+    }
+}
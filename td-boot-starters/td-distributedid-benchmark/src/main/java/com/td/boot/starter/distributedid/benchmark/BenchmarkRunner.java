@@ -0,0 +1,41 @@
+package com.td.boot.starter.distributedid.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 基準測試入口，依次以 1、4、16、64 個線程運行所有基準測試。
+ * 每個線程數的結果輸出為 JSON 文件 (jmh-result-{線程數}t.json)，可以提交到評審中與上一次結果對比。
+ * <pre>
+ * mvn -Pbenchmark -pl td-boot-starters/td-distributedid-benchmark -am package
+ * java -jar td-boot-starters/td-distributedid-benchmark/target/benchmarks.jar [JMH 參數，例如 -p generator=SEGMENT]
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        String resultDir = System.getProperty("benchmark.resultDir", ".");
+        for (int threads : THREAD_COUNTS) {
+            OptionsBuilder options = new OptionsBuilder();
+            options.parent(commandLineOptions);
+            if (commandLineOptions.getIncludes().isEmpty()) {
+                options.include(IdGeneratorBenchmark.class.getSimpleName());
+            }
+            options.threads(threads)
+                    .addProfiler(GCProfiler.class) // 分配速率 (gc.alloc.rate.norm)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "jmh-result-" + threads + "t.json").getPath());
+            new Runner(options.build()).run();
+        }
+    }
+}
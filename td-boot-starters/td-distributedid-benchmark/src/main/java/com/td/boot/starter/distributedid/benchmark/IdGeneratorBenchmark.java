@@ -0,0 +1,89 @@
+package com.td.boot.starter.distributedid.benchmark;
+
+import com.td.boot.starter.distributedid.generator.IIdGenerator;
+import com.td.boot.starter.distributedid.generator.segment.SegmentIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.LockFreeSnowflakeIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.SnowflakeIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.worker.DefaultWorkerIdAssigner;
+import com.td.boot.starter.distributedid.generator.uuid.UuidGenerator;
+import com.td.boot.starter.distributedid.generator.uuid.UuidV7Generator;
+import com.td.boot.starter.distributedid.properties.DistributedIdProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID 生成器基準測試。
+ * 同一組基準方法覆蓋各個生成器實現，由 {@link BenchmarkRunner} 按不同線程數運行，
+ * 同時統計吞吐量 (ops/s)、分配速率 (GC profiler) 和尾延遲 (SampleTime 百分位)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class IdGeneratorBenchmark {
+
+    private static final String BIZ_KEY = "benchmark";
+
+    /**
+     * 被測的生成器。
+     */
+    @Param({"SNOWFLAKE", "SNOWFLAKE_LOCK_FREE", "SEGMENT", "UUID", "UUID_V7"})
+    private String generator;
+
+    private IIdGenerator idGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        DistributedIdProperties properties = new DistributedIdProperties();
+        switch (generator) {
+            case "SNOWFLAKE":
+                idGenerator = new SnowflakeIdGenerator(new DefaultWorkerIdAssigner(properties));
+                break;
+            case "SNOWFLAKE_LOCK_FREE":
+                idGenerator = new LockFreeSnowflakeIdGenerator(new DefaultWorkerIdAssigner(properties));
+                break;
+            case "SEGMENT":
+                DistributedIdProperties.SegmentProperties segment = properties.getSegment();
+                segment.setBizKeys(Collections.singletonList(BIZ_KEY));
+                segment.setDefaultBizKey(BIZ_KEY);
+                segment.setStep(10_000);
+                segment.setAsyncWarmUp(false);
+                SegmentIdGenerator segmentIdGenerator = new SegmentIdGenerator(new InMemoryIdSegmentProvider(segment.getStep()), properties);
+                segmentIdGenerator.getWarmUpFuture().get();
+                idGenerator = segmentIdGenerator;
+                break;
+            case "UUID":
+                idGenerator = new UuidGenerator();
+                break;
+            case "UUID_V7":
+                idGenerator = new UuidV7Generator(new DefaultWorkerIdAssigner(properties));
+                break;
+            default:
+                throw new IllegalArgumentException("未知的生成器: " + generator);
+        }
+    }
+
+    /**
+     * 釋放生成器持有的後台線程 (例如 Segment 的預取線程池)，否則非守護線程會阻止 fork 出的 JVM 退出。
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (idGenerator instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public long generateLongId() {
+        return idGenerator.generateLongId();
+    }
+
+    @Benchmark
+    public String generateStringId() {
+        return idGenerator.generateStringId();
+    }
+}
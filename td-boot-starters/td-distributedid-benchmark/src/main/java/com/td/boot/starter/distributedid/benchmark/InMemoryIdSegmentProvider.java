@@ -0,0 +1,34 @@
+package com.td.boot.starter.distributedid.benchmark;
+
+import com.td.boot.starter.distributedid.generator.segment.buffer.IdSegment;
+import com.td.boot.starter.distributedid.generator.segment.provider.IdSegmentProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 內存中的號段提供者，只用於基準測試。
+ * 不訪問任何外部存儲，測得的是 SegmentIdGenerator 本身 (取號、切換、預加載) 的開銷。
+ */
+public class InMemoryIdSegmentProvider implements IdSegmentProvider {
+
+    private final Map<String, AtomicLong> maxIds = new ConcurrentHashMap<>();
+    private final int defaultStep;
+
+    public InMemoryIdSegmentProvider(int defaultStep) {
+        this.defaultStep = defaultStep;
+    }
+
+    @Override
+    public IdSegment getNextSegment(String bizKey) {
+        return getNextSegment(bizKey, defaultStep);
+    }
+
+    @Override
+    public IdSegment getNextSegment(String bizKey, int requestedStep) {
+        int step = requestedStep > 0 ? requestedStep : defaultStep;
+        long newMax = maxIds.computeIfAbsent(bizKey, key -> new AtomicLong()).addAndGet(step);
+        return new IdSegment(newMax - step + 1, step);
+    }
+}
@@ -5,12 +5,23 @@ import com.td.boot.starter.distributedid.generator.segment.SegmentIdGenerator;
 import com.td.boot.starter.distributedid.generator.segment.provider.DbIdSegmentProvider;
 import com.td.boot.starter.distributedid.generator.segment.provider.IdSegmentProvider;
 import com.td.boot.starter.distributedid.generator.segment.provider.RedisIdSegmentProvider;
+import com.td.boot.starter.distributedid.generator.snowflake.ClockTolerantSnowflakeIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.LockFreeSnowflakeIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.SnowflakeIdDecoder;
 import com.td.boot.starter.distributedid.generator.snowflake.SnowflakeIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.SnowflakeLayout;
+import com.td.boot.starter.distributedid.generator.snowflake.worker.DbWorkerIdAssigner;
 import com.td.boot.starter.distributedid.generator.snowflake.worker.DefaultWorkerIdAssigner;
+import com.td.boot.starter.distributedid.generator.snowflake.worker.RedisWorkerIdAssigner;
 import com.td.boot.starter.distributedid.generator.snowflake.worker.WorkerIdAssigner;
 import com.td.boot.starter.distributedid.generator.uuid.UuidGenerator;
+import com.td.boot.starter.distributedid.generator.uuid.UuidV7Generator;
+import com.td.boot.starter.distributedid.metrics.DistributedIdMetricsBinder;
 import com.td.boot.starter.distributedid.properties.DistributedIdProperties;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.*;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -20,11 +31,18 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 
 import javax.sql.DataSource;
+import java.time.Instant;
 
 /**
  * 分佈式 ID 生成器 Starter 的自動配置類。
+ * 排在 Redis / JDBC 自動配置之後，保證按 StringRedisTemplate / JdbcTemplate 判斷的 Bean 能看到它們。
  */
 @Configuration
+@AutoConfigureAfter(name = {
+        "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration",
+        "org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration",
+        "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration",
+        "com.td.boot.starter.redis.config.RedisAutoConfiguration"})
 @EnableConfigurationProperties(DistributedIdProperties.class) // 啟用配置屬性綁定
 @ConditionalOnProperty(prefix = "td.distributed-id", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class DistributedIdAutoConfiguration {
@@ -36,27 +54,101 @@ public class DistributedIdAutoConfiguration {
         this.properties = properties;
     }
 
+    /**
+     * 條件化創建基於 Redis 租約的 WorkerIdAssigner。
+     * 只有當 snowflake.worker-id-assigner 為 REDIS 時才生效；缺少 StringRedisTemplate 時直接啟動失敗，
+     * 不回退到靜態配置，避免多個節點拿到同一個 workerId。
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean(WorkerIdAssigner.class)
+    @ConditionalOnProperty(prefix = "td.distributed-id.snowflake", name = "worker-id-assigner", havingValue = "REDIS")
+    @ConditionalOnClass(StringRedisTemplate.class) // 判斷類是否存在
+    public WorkerIdAssigner redisWorkerIdAssigner(ObjectProvider<StringRedisTemplate> redisTemplateProvider) {
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            throw new IllegalStateException("td.distributed-id.snowflake.worker-id-assigner=REDIS 需要一個 StringRedisTemplate Bean，請配置 Redis 連接");
+        }
+        DistributedIdProperties.SnowflakeProperties snowflake = properties.getSnowflake();
+        return new RedisWorkerIdAssigner(redisTemplate, snowflake.getDatacenterIdBits(), snowflake.getWorkerIdBits(),
+                snowflake.getWorkerIdLeaseTtlMillis(), snowflake.getWorkerIdHeartbeatIntervalMillis());
+    }
+
+    /**
+     * 條件化創建基於數據庫租約的 WorkerIdAssigner。
+     * 只有當 snowflake.worker-id-assigner 為 DB 時才生效；缺少 JdbcTemplate 時直接啟動失敗。
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean(WorkerIdAssigner.class)
+    @ConditionalOnProperty(prefix = "td.distributed-id.snowflake", name = "worker-id-assigner", havingValue = "DB")
+    @ConditionalOnClass(JdbcTemplate.class) // 判斷類是否存在
+    public WorkerIdAssigner dbWorkerIdAssigner(ObjectProvider<JdbcTemplate> jdbcTemplateProvider) {
+        JdbcTemplate jdbcTemplate = jdbcTemplateProvider.getIfAvailable();
+        if (jdbcTemplate == null) {
+            throw new IllegalStateException("td.distributed-id.snowflake.worker-id-assigner=DB 需要一個 JdbcTemplate Bean，請配置數據源");
+        }
+        DistributedIdProperties.SnowflakeProperties snowflake = properties.getSnowflake();
+        return new DbWorkerIdAssigner(jdbcTemplate, snowflake.getDatacenterIdBits(), snowflake.getWorkerIdBits(),
+                snowflake.getWorkerIdLeaseTtlMillis(), snowflake.getWorkerIdHeartbeatIntervalMillis());
+    }
+
     /**
      * 配置 WorkerIdAssigner。
-     * 如果用戶沒有自定義 WorkerIdAssigner，則使用默認的基於配置的實現。
+     * 如果用戶沒有自定義 WorkerIdAssigner，也沒有啟用租約式分配，則使用默認的基於配置的實現。
+     * 配置了 REDIS / DB 卻走到這裡（例如類路徑缺少 Redis / JDBC），說明租約式分配沒有生效，直接啟動失敗。
      */
     @Bean
     @ConditionalOnMissingBean(WorkerIdAssigner.class)
     public WorkerIdAssigner defaultWorkerIdAssigner() {
+        DistributedIdProperties.SnowflakeProperties.WorkerIdAssignerType type = properties.getSnowflake().getWorkerIdAssigner();
+        if (type != DistributedIdProperties.SnowflakeProperties.WorkerIdAssignerType.STATIC) {
+            throw new IllegalStateException("td.distributed-id.snowflake.worker-id-assigner=" + type
+                    + " 但類路徑上缺少對應的 Redis / JDBC 依賴，無法租用 workerId");
+        }
         return new DefaultWorkerIdAssigner(properties);
     }
 
+    /**
+     * 配置 Snowflake ID 位佈局，啟動時校驗各段位數和起始時間戳。
+     */
+    @Bean
+    @ConditionalOnMissingBean(SnowflakeLayout.class)
+    public SnowflakeLayout snowflakeLayout() {
+        DistributedIdProperties.SnowflakeProperties snowflake = properties.getSnowflake();
+        return new SnowflakeLayout(snowflake.getTimestampBits(), snowflake.getDatacenterIdBits(),
+                snowflake.getWorkerIdBits(), snowflake.getSequenceBits(),
+                Instant.parse(snowflake.getEpoch()).toEpochMilli());
+    }
+
+    /**
+     * 配置 Snowflake ID 解析工具，用於從已有 ID 中提取時間戳和節點信息。
+     */
+    @Bean
+    @ConditionalOnMissingBean(SnowflakeIdDecoder.class)
+    public SnowflakeIdDecoder snowflakeIdDecoder(SnowflakeLayout snowflakeLayout) {
+        return new SnowflakeIdDecoder(snowflakeLayout);
+    }
+
     /**
      * 配置 SnowflakeIdGenerator 作為默認的 IIdGenerator 實現。
      * 只有在 IIdGenerator 類路徑存在且沒有其他 IIdGenerator Bean 時才生效。
      * 並且默認策略配置為 SNOWFLAKE。
+     * 根據 td.distributed-id.snowflake.mode 選擇基於鎖、無鎖 (CAS) 或容忍時鐘漂移的實現。
      */
     @Bean
     @ConditionalOnClass(IIdGenerator.class) // 只有 IIdGenerator 存在於 classpath 時才自動配置
     @ConditionalOnMissingBean(IIdGenerator.class) // 避免用戶重複定義
     @ConditionalOnProperty(prefix = "td.distributed-id", name = "default-strategy", havingValue = "SNOWFLAKE", matchIfMissing = true)
-    public IIdGenerator snowflakeIdGenerator(WorkerIdAssigner workerIdAssigner) {
-        return new SnowflakeIdGenerator(workerIdAssigner);
+    public IIdGenerator snowflakeIdGenerator(WorkerIdAssigner workerIdAssigner, SnowflakeLayout snowflakeLayout) {
+        DistributedIdProperties.SnowflakeProperties snowflake = properties.getSnowflake();
+        switch (snowflake.getMode()) {
+            case LOCK_FREE:
+                return new LockFreeSnowflakeIdGenerator(workerIdAssigner, snowflakeLayout);
+            case CLOCK_TOLERANT:
+                return new ClockTolerantSnowflakeIdGenerator(workerIdAssigner, snowflakeLayout,
+                        snowflake.getMaxBorrowMillis(), snowflake.getMaxBackwardMillis());
+            default:
+                return new SnowflakeIdGenerator(workerIdAssigner, snowflakeLayout);
+        }
     }
 
 
@@ -69,6 +161,16 @@ public class DistributedIdAutoConfiguration {
         return new UuidGenerator();
     }
 
+    /**
+     * 配置 UuidV7Generator。Long ID 嵌入由 WorkerIdAssigner 分配的節點 ID，節點位數超過 10 位時啟動失敗。
+     */
+    @Bean
+    @ConditionalOnMissingBean(IIdGenerator.class)
+    @ConditionalOnExpression("'${td.distributed-id.default-strategy}'.equalsIgnoreCase('UUID_V7')")
+    public IIdGenerator uuidV7Generator(WorkerIdAssigner workerIdAssigner, SnowflakeLayout snowflakeLayout) {
+        return new UuidV7Generator(workerIdAssigner, snowflakeLayout);
+    }
+
     // --- Segment 策略配置 ---
 
     /**
@@ -108,4 +210,25 @@ public class DistributedIdAutoConfiguration {
     public IIdGenerator segmentIdGenerator(IdSegmentProvider idSegmentProvider) {
         return new SegmentIdGenerator(idSegmentProvider, properties);
     }
+
+    // --- 指標配置 ---
+
+    /**
+     * Micrometer 指標配置，只有類路徑上存在 Micrometer 時才加載。
+     * 放在靜態內部類中，避免缺少 Micrometer 時解析外部配置類的方法簽名失敗。
+     */
+    @Configuration
+    @ConditionalOnClass(MeterBinder.class)
+    @ConditionalOnProperty(prefix = "td.distributed-id", name = "metrics-enabled", havingValue = "true", matchIfMissing = true)
+    static class DistributedIdMetricsConfiguration {
+
+        /**
+         * 配置 ID 生成器指標綁定器，由 Spring Boot Actuator 在創建 MeterRegistry 時綁定。
+         */
+        @Bean
+        @ConditionalOnMissingBean(DistributedIdMetricsBinder.class)
+        public DistributedIdMetricsBinder distributedIdMetricsBinder(ObjectProvider<IIdGenerator> idGenerators) {
+            return new DistributedIdMetricsBinder(idGenerators.orderedStream().toList());
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package com.td.boot.starter.distributedid.generator;
 
+import com.td.boot.starter.distributedid.generator.encoder.IdEncoder;
+
 /**
  * 通用 ID 生成器接口。
  * 定義了生成不同類型 ID 的方法。
@@ -28,4 +30,65 @@ public interface IIdGenerator {
      * @return 生成的帶前綴的字符串型 ID
      */
     String generateStringId(String prefix);
+
+    /**
+     * 批量生成長整型 ID。
+     * 適用於批量導入、拆單等需要一次性獲取大量 ID 的場景。
+     *
+     * @param count 需要生成的 ID 數量
+     * @return 生成的長整型 ID 數組
+     */
+    default long[] generateLongIds(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("批量生成的 ID 數量不能小於 0");
+        }
+        long[] ids = new long[count];
+        fillIds(ids);
+        return ids;
+    }
+
+    /**
+     * 使用生成的長整型 ID 填滿目標數組。
+     * 默認實現逐個調用 {@link #generateLongId()}，具體實現可以覆蓋此方法，
+     * 在一次協調 (加鎖 / CAS) 中預留一段連續 ID，以攤薄整批 ID 的協調開銷。
+     *
+     * @param dest 目標數組，每個元素都會被寫入一個新 ID
+     */
+    default void fillIds(long[] dest) {
+        if (dest == null) {
+            throw new IllegalArgumentException("目標數組不能為空");
+        }
+        for (int i = 0; i < dest.length; i++) {
+            dest[i] = generateLongId();
+        }
+    }
+
+    /**
+     * 生成一個 ID 並按指定編碼器編碼為字符串 (包含編碼器的前綴)。
+     * 默認實現編碼 {@link #generateLongId()}，只分配最終的 String。
+     *
+     * @param encoder ID 編碼器
+     * @return 編碼後的字符串型 ID
+     */
+    default String generateStringId(IdEncoder encoder) {
+        if (encoder == null) {
+            throw new IllegalArgumentException("ID編碼器不能為空");
+        }
+        return encoder.encode(generateLongId());
+    }
+
+    /**
+     * 生成一個 ID 並按指定編碼器直接寫入調用方的緩衝區，完全不分配對象。
+     *
+     * @param encoder ID 編碼器
+     * @param dest    目標緩衝區
+     * @param offset  寫入的起始位置
+     * @return 寫入的字節數
+     */
+    default int generateId(IdEncoder encoder, byte[] dest, int offset) {
+        if (encoder == null) {
+            throw new IllegalArgumentException("ID編碼器不能為空");
+        }
+        return encoder.encode(generateLongId(), dest, offset);
+    }
 }
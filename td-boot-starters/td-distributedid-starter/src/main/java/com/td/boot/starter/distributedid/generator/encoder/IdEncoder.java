@@ -0,0 +1,228 @@
+package com.td.boot.starter.distributedid.generator.encoder;
+
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ID 編碼器。
+ * 將 64 位 ID (例如 Snowflake、號段) 或 128 位 ID (例如 UUID) 直接寫入調用方提供的 byte[] / char[] 緩衝區，
+ * 不產生中間字符串；前綴在構造時預先轉換為字節。
+ * <ul>
+ *     <li>64 位 ID 按無符號數編碼，變長，不補前導零；</li>
+ *     <li>128 位 ID 的高低 64 位各按定長編碼後拼接，結果定長且可按字符串排序。</li>
+ * </ul>
+ * 實例不可變且線程安全，應按 (編碼方式, 前綴) 緩存復用。
+ */
+public final class IdEncoder {
+
+    private final IdEncoding encoding;
+    private final String prefix;
+    private final byte[] prefixBytes; // 預先轉換好的前綴字節 (ASCII)
+    private final byte[] digits;      // 字母表
+    private final int radix;          // 進制
+    private final int shift;          // 進制為 2 的冪時每位對應的比特數，否則為 0
+    private final long[] powers;      // powers[i] = radix^i (無符號)，用於計算位數
+    private final int fixedWidth;     // 編碼一個無符號 64 位整數最多需要的字符數
+    // 轉換為 String 時使用的線程本地緩衝區，避免每次分配臨時數組
+    private final ThreadLocal<byte[]> buffers;
+
+    private IdEncoder(IdEncoding encoding, String prefix) {
+        Assert.notNull(encoding, "編碼方式不能為空");
+        this.encoding = encoding;
+        this.prefix = prefix != null ? prefix : "";
+        for (int i = 0; i < this.prefix.length(); i++) {
+            if (this.prefix.charAt(i) > 0x7F) {
+                throw new IllegalArgumentException("ID前綴只能包含 ASCII 字符: " + this.prefix);
+            }
+        }
+        this.prefixBytes = this.prefix.getBytes(StandardCharsets.US_ASCII);
+        this.digits = encoding.getAlphabet().getBytes(StandardCharsets.US_ASCII);
+        this.radix = digits.length;
+        this.shift = Integer.bitCount(radix) == 1 ? Integer.numberOfTrailingZeros(radix) : 0;
+
+        List<Long> powerList = new ArrayList<>();
+        long power = 1L;
+        powerList.add(power);
+        // 下一個冪不超過無符號 64 位最大值時繼續
+        while (Long.compareUnsigned(power, Long.divideUnsigned(-1L, radix)) <= 0) {
+            power *= radix;
+            powerList.add(power);
+        }
+        this.powers = powerList.stream().mapToLong(Long::longValue).toArray();
+        this.fixedWidth = powers.length;
+
+        int bufferSize = prefixBytes.length + fixedWidth * 2;
+        this.buffers = ThreadLocal.withInitial(() -> new byte[bufferSize]);
+    }
+
+    /**
+     * 創建不帶前綴的編碼器。
+     */
+    public static IdEncoder of(IdEncoding encoding) {
+        return new IdEncoder(encoding, null);
+    }
+
+    /**
+     * 創建帶前綴的編碼器，前綴只能包含 ASCII 字符。
+     */
+    public static IdEncoder of(IdEncoding encoding, String prefix) {
+        return new IdEncoder(encoding, prefix);
+    }
+
+    public IdEncoding getEncoding() {
+        return encoding;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * 編碼一個 64 位 ID 最多需要的字符數 (含前綴)，可用於預先分配緩衝區。
+     */
+    public int maxLength() {
+        return prefixBytes.length + fixedWidth;
+    }
+
+    /**
+     * 編碼一個 128 位 ID 需要的字符數 (含前綴)。
+     */
+    public int maxLength128() {
+        return prefixBytes.length + fixedWidth * 2;
+    }
+
+    /**
+     * 將 64 位 ID 編碼寫入字節緩衝區。
+     *
+     * @param id     ID，按無符號數處理
+     * @param dest   目標緩衝區，剩餘空間至少為 {@link #maxLength()}
+     * @param offset 寫入的起始位置
+     * @return 寫入的字節數
+     */
+    public int encode(long id, byte[] dest, int offset) {
+        int pos = writePrefix(dest, offset);
+        int width = digitCount(id);
+        writeDigits(id, dest, pos + width, width);
+        return pos + width - offset;
+    }
+
+    /**
+     * 將 128 位 ID 編碼寫入字節緩衝區，高低 64 位各按定長編碼。
+     *
+     * @param mostSigBits  高 64 位
+     * @param leastSigBits 低 64 位
+     * @param dest         目標緩衝區，剩餘空間至少為 {@link #maxLength128()}
+     * @param offset       寫入的起始位置
+     * @return 寫入的字節數
+     */
+    public int encode(long mostSigBits, long leastSigBits, byte[] dest, int offset) {
+        int pos = writePrefix(dest, offset);
+        writeDigits(mostSigBits, dest, pos + fixedWidth, fixedWidth);
+        writeDigits(leastSigBits, dest, pos + fixedWidth * 2, fixedWidth);
+        return prefixBytes.length + fixedWidth * 2;
+    }
+
+    /**
+     * 將 64 位 ID 編碼寫入字符緩衝區。
+     *
+     * @return 寫入的字符數
+     */
+    public int encode(long id, char[] dest, int offset) {
+        byte[] buffer = buffers.get();
+        int length = encode(id, buffer, 0);
+        copy(buffer, length, dest, offset);
+        return length;
+    }
+
+    /**
+     * 將 128 位 ID 編碼寫入字符緩衝區。
+     *
+     * @return 寫入的字符數
+     */
+    public int encode(long mostSigBits, long leastSigBits, char[] dest, int offset) {
+        byte[] buffer = buffers.get();
+        int length = encode(mostSigBits, leastSigBits, buffer, 0);
+        copy(buffer, length, dest, offset);
+        return length;
+    }
+
+    /**
+     * 將 64 位 ID 編碼為字符串，只分配最終的 String。
+     */
+    public String encode(long id) {
+        byte[] buffer = buffers.get();
+        int length = encode(id, buffer, 0);
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 將 128 位 ID 編碼為字符串，只分配最終的 String。
+     */
+    public String encode(long mostSigBits, long leastSigBits) {
+        byte[] buffer = buffers.get();
+        int length = encode(mostSigBits, leastSigBits, buffer, 0);
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 將 UUID 編碼為字符串。
+     */
+    public String encode(UUID uuid) {
+        Assert.notNull(uuid, "UUID 不能為空");
+        return encode(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    private int writePrefix(byte[] dest, int offset) {
+        System.arraycopy(prefixBytes, 0, dest, offset, prefixBytes.length);
+        return offset + prefixBytes.length;
+    }
+
+    /**
+     * 計算無符號數 value 需要的位數 (至少 1 位)。
+     */
+    private int digitCount(long value) {
+        if (shift > 0) {
+            return Math.max(1, (64 - Long.numberOfLeadingZeros(value) + shift - 1) / shift);
+        }
+        int count = 1;
+        while (count < powers.length && Long.compareUnsigned(value, powers[count]) >= 0) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 從 end (不包含) 向前寫入 width 位，不足的高位補零。
+     */
+    private void writeDigits(long value, byte[] dest, int end, int width) {
+        int pos = end;
+        if (shift > 0) {
+            int mask = radix - 1;
+            for (int i = 0; i < width; i++) {
+                dest[--pos] = digits[(int) (value & mask)];
+                value >>>= shift;
+            }
+            return;
+        }
+        if (value < 0 && width > 0) {
+            // 最高位為 1 時先做一次無符號除法，之後即可使用普通除法
+            dest[--pos] = digits[(int) Long.remainderUnsigned(value, radix)];
+            value = Long.divideUnsigned(value, radix);
+            width--;
+        }
+        for (; width > 0; width--) {
+            dest[--pos] = digits[(int) (value % radix)];
+            value /= radix;
+        }
+    }
+
+    private static void copy(byte[] source, int length, char[] dest, int offset) {
+        for (int i = 0; i < length; i++) {
+            dest[offset + i] = (char) source[i];
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.td.boot.starter.distributedid.generator.encoder;
+
+/**
+ * ID 字符串編碼方式。
+ * 字母表均按 ASCII 順序排列，定長編碼的結果可以直接按字符串排序。
+ */
+public enum IdEncoding {
+    /**
+     * 十進制。
+     */
+    BASE10("0123456789"),
+    /**
+     * Crockford Base32，去掉了容易混淆的 I、L、O、U，適合人工錄入的單號。
+     */
+    BASE32("0123456789ABCDEFGHJKMNPQRSTVWXYZ"),
+    /**
+     * Base62 (數字 + 大寫字母 + 小寫字母)，長度最短。
+     */
+    BASE62("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"),
+    /**
+     * 小寫十六進制，不帶橫線。
+     */
+    HEX("0123456789abcdef");
+
+    private final String alphabet;
+
+    IdEncoding(String alphabet) {
+        this.alphabet = alphabet;
+    }
+
+    public String getAlphabet() {
+        return alphabet;
+    }
+}
@@ -4,41 +4,92 @@ import com.td.boot.starter.distributedid.generator.IIdGenerator;
 import com.td.boot.starter.distributedid.generator.segment.buffer.IdSegment;
 import com.td.boot.starter.distributedid.generator.segment.buffer.RingBuffer;
 import com.td.boot.starter.distributedid.generator.segment.provider.IdSegmentProvider;
+import com.td.boot.starter.distributedid.generator.segment.snapshot.SegmentSnapshotStore;
+import com.td.boot.starter.distributedid.generator.segment.snapshot.SegmentSnapshotStore.SegmentRange;
 import com.td.boot.starter.distributedid.properties.DistributedIdProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.Assert;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
 
 /**
  * 號段模式 ID 生成器實現。
  * 為不同的業務鍵（bizKey）管理獨立的 ID 號段。
- * 採用雙緩衝區機制和異步填充，確保高可用和高性能。
+ * 每個業務鍵維護「當前號段 + N 深度預取隊列」，預取數量低於水位時異步補齊，確保高可用和高性能。
+ * 取號熱路徑只有一次原子自增，只有在切換號段時才需要加鎖。
+ * 啟用 lazyRegister 時未配置的業務鍵可以在首次使用時懶加載註冊，配置的業務鍵在啟動時並行異步預熱。
+ * 號段提供者支持批量取號時，啟動預熱和並發的異步補齊會合併成批量請求，減少與數據源的交互次數。
+ * 取號耗時、緊急填充和號段切換按業務鍵記錄在各自的 RingBuffer 中，可通過 {@link #getRingBuffers()} 讀取。
+ * 啟用號段快照時，關閉時把尚未發放的號段寫入本地快照，重啟時優先從快照恢復。
  */
 @Slf4j
-public class SegmentIdGenerator implements IIdGenerator {
+public class SegmentIdGenerator implements IIdGenerator, AutoCloseable {
 
     private final Map<String, RingBuffer> ringBufferMap = new ConcurrentHashMap<>();
     private final IdSegmentProvider idSegmentProvider;
     private final DistributedIdProperties.SegmentProperties segmentProperties;
     private final ExecutorService executorService; // 用於異步填充號段
+    private final CompletableFuture<Void> warmUpFuture; // 啟動預熱完成的信號
+    private final boolean batchFetch; // 是否合併批量取號
+
+    // 等待合併成批量請求的異步補齊：業務鍵 -> 是否允許調整步長 (對應業務鍵已持有預加載標誌)
+    private final Map<String, Boolean> pendingRefills = new ConcurrentHashMap<>();
+    // 是否已有批量補齊任務在排隊或執行
+    private final AtomicBoolean refillDrainScheduled = new AtomicBoolean(false);
+    // 懶加載註冊新業務鍵時的回調 (例如為新業務鍵註冊指標)
+    private final List<BiConsumer<String, RingBuffer>> registrationListeners = new CopyOnWriteArrayList<>();
+    // 號段快照存儲，未啟用快照時為 null
+    private final SegmentSnapshotStore snapshotStore;
+    // 是否已關閉，關閉後拒絕發號
+    private volatile boolean closed = false;
 
     public SegmentIdGenerator(IdSegmentProvider idSegmentProvider, DistributedIdProperties properties) {
         Assert.notNull(idSegmentProvider, "IdSegmentProvider 不能為空");
         Assert.notNull(properties, "DistributedIdProperties 不能為空");
         this.idSegmentProvider = idSegmentProvider;
         this.segmentProperties = properties.getSegment();
+        this.batchFetch = segmentProperties.isBatchFetch() && idSegmentProvider.isBatchSupported();
 
         // 初始化業務鍵對應的環形緩衝區
-        for (String bizKey : segmentProperties.getBizKeys()) {
-            ringBufferMap.put(bizKey, new RingBuffer());
+        List<String> bizKeys = segmentProperties.getBizKeys() != null ? segmentProperties.getBizKeys() : Collections.emptyList();
+        for (String bizKey : bizKeys) {
+            ringBufferMap.put(bizKey, new RingBuffer(segmentProperties.getPrefetchDepth()));
             log.info("為業務鍵 {} 初始化 Segment RingBuffer", bizKey);
         }
 
-        // 創建異步填充線程池
-        this.executorService = new ThreadPoolExecutor(
+        // 從快照恢復上次正常關閉時尚未發放的號段，預熱時只補齊不足的部分
+        this.snapshotStore = openSnapshotStore();
+        restoreSnapshot();
+
+        // 創建異步填充執行器
+        this.executorService = createRefillExecutor();
+
+        // 啟動預填充邏輯
+        this.warmUpFuture = warmUpSegments(bizKeys);
+    }
+
+    /**
+     * 創建異步填充執行器。
+     * 虛擬線程模式下每個填充任務一個虛擬線程，阻塞在數據源 I/O 上不佔用平台線程，也不會因隊列已滿而在請求線程中執行；
+     * 同一業務鍵的填充仍由 RingBuffer 的預加載標誌去重，批量模式下還會合併成一個批量補齊任務。
+     */
+    private ExecutorService createRefillExecutor() {
+        if (segmentProperties.getRefillExecutor() == DistributedIdProperties.SegmentProperties.RefillExecutorType.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("SegmentIdWorker-", 0).factory());
+        }
+        return new ThreadPoolExecutor(
                 segmentProperties.getCorePoolSize(),
                 segmentProperties.getMaxPoolSize(),
                 segmentProperties.getKeepAliveTimeSeconds(),
@@ -47,33 +98,210 @@ public class SegmentIdGenerator implements IIdGenerator {
                 r -> new Thread(r, "SegmentIdWorker-" + r.hashCode()),
                 new ThreadPoolExecutor.CallerRunsPolicy()
         );
+    }
 
-        // 啟動預填充邏輯
-        startPreloadSegments();
+    /**
+     * 打開號段快照存儲，未啟用快照時返回 null。
+     */
+    private SegmentSnapshotStore openSnapshotStore() {
+        if (!segmentProperties.isSnapshotEnabled()) {
+            return null;
+        }
+        Assert.hasText(segmentProperties.getSnapshotPath(), "啟用號段快照時必須配置 snapshotPath");
+        try {
+            return new SegmentSnapshotStore(Paths.get(segmentProperties.getSnapshotPath()));
+        } catch (IOException e) {
+            throw new IllegalStateException("打開號段快照文件 " + segmentProperties.getSnapshotPath() + " 失敗", e);
+        }
+    }
+
+    /**
+     * 從快照恢復尚未發放的號段：第一個區間作為當前號段，其餘放入預取隊列。
+     * 快照在加載時已作廢，恢復失敗只會浪費這些區間，不會重複發號。
+     */
+    private void restoreSnapshot() {
+        if (snapshotStore == null) {
+            return;
+        }
+        Map<String, List<SegmentRange>> snapshot;
+        try {
+            snapshot = snapshotStore.load();
+        } catch (IOException e) {
+            log.error("讀取號段快照失敗，將從號段提供者重新獲取號段。", e);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        snapshot.forEach((bizKey, ranges) -> {
+            RingBuffer ringBuffer = ringBufferMap.get(bizKey);
+            if (ringBuffer == null) {
+                if (!segmentProperties.isLazyRegister()) {
+                    log.warn("快照中的業務鍵 {} 未配置，丟棄其 {} 個號段區間。", bizKey, ranges.size());
+                    return;
+                }
+                ringBuffer = new RingBuffer(segmentProperties.getPrefetchDepth());
+                ringBufferMap.put(bizKey, ringBuffer);
+            }
+            int restored = 0;
+            for (SegmentRange range : ranges) {
+                IdSegment segment = new IdSegment(range.getStart(), (int) (range.getEnd() - range.getStart()));
+                segment.setNextReadyTime(now + segmentProperties.getPreloadIntervalMillis());
+                if (ringBuffer.fillCurrentIfEmpty(segment) || ringBuffer.offerPrefetched(segment)) {
+                    restored++;
+                }
+            }
+            if (restored < ranges.size()) {
+                log.warn("業務鍵 {} 的預取隊列容量不足，丟棄 {} 個快照號段區間。", bizKey, ranges.size() - restored);
+            }
+            log.info("業務鍵 {} 從快照恢復 {} 個號段區間。", bizKey, restored);
+        });
     }
 
     /**
-     * 啟動所有業務鍵的號段預填充。
+     * 預熱所有配置的業務鍵。
+     * 異步模式下使用臨時線程池並行預熱，啟動耗時不再隨業務鍵數量線性增長；
+     * 預熱完成前到達的請求會在對應 RingBuffer 的鎖上等待同一次填充，不會重複訪問號段提供者。
+     *
+     * @param bizKeys 需要預熱的業務鍵
+     * @return 全部預熱完成的信號
      */
-    private void startPreloadSegments() {
-        ringBufferMap.forEach((bizKey, ringBuffer) -> {
-            // 初始填充兩個緩衝區，確保 ID 服務可用
+    private CompletableFuture<Void> warmUpSegments(Collection<String> bizKeys) {
+        if (bizKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (batchFetch) {
+            // 批量預熱：所有業務鍵合併成少量批量請求，無需再並行
+            if (!segmentProperties.isAsyncWarmUp()) {
+                warmUpBatch(bizKeys);
+                return CompletableFuture.completedFuture(null);
+            }
+            long start = System.currentTimeMillis();
+            ExecutorService warmUpExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "SegmentIdWarmUp-" + r.hashCode()));
             try {
-                // 填充第一個緩衝區
-                IdSegment segment1 = idSegmentProvider.getNextSegment(bizKey);
-                ringBuffer.fillSegment(0, segment1);
+                return CompletableFuture.runAsync(() -> warmUpBatch(bizKeys), warmUpExecutor)
+                        .whenComplete((v, e) -> log.info("Segment 號段批量預熱完成，業務鍵數量: {}，耗時: {}ms",
+                                bizKeys.size(), System.currentTimeMillis() - start));
+            } finally {
+                warmUpExecutor.shutdown();
+            }
+        }
+        if (!segmentProperties.isAsyncWarmUp()) {
+            bizKeys.forEach(bizKey -> warmUp(bizKey, ringBufferMap.get(bizKey)));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int parallelism = Math.max(1, Math.min(segmentProperties.getWarmUpParallelism(), bizKeys.size()));
+        ExecutorService warmUpExecutor = Executors.newFixedThreadPool(parallelism,
+                r -> new Thread(r, "SegmentIdWarmUp-" + r.hashCode()));
+        try {
+            long start = System.currentTimeMillis();
+            CompletableFuture<?>[] futures = bizKeys.stream()
+                    .map(bizKey -> CompletableFuture.runAsync(() -> warmUp(bizKey, ringBufferMap.get(bizKey)), warmUpExecutor))
+                    .toArray(CompletableFuture[]::new);
+            return CompletableFuture.allOf(futures)
+                    .whenComplete((v, e) -> log.info("Segment 號段預熱完成，業務鍵數量: {}，耗時: {}ms",
+                            bizKeys.size(), System.currentTimeMillis() - start));
+        } finally {
+            // 已提交的預熱任務執行完後線程自動退出
+            warmUpExecutor.shutdown();
+        }
+    }
 
-                // 填充第二個緩衝區 (可選，但推薦以確保雙緩衝區都有數據)
-                IdSegment segment2 = idSegmentProvider.getNextSegment(bizKey);
-                ringBuffer.fillSegment(1, segment2);
+    /**
+     * 預熱單個業務鍵：填充當前號段並預取到配置的深度，確保 ID 服務可用。
+     */
+    private void warmUp(String bizKey, RingBuffer ringBuffer) {
+        try {
+            // 填充當前號段
+            initCurrentSegment(bizKey, ringBuffer);
 
+            // 填充預取隊列，與異步預加載共用同一個單飛標誌
+            if (ringBuffer.tryStartLoading()) {
+                try {
+                    prefetchSegments(bizKey, ringBuffer, false);
+                } finally {
+                    ringBuffer.finishLoading();
+                }
+            }
+        } catch (Exception e) {
+            log.error("初始填充業務鍵 {} 的號段失敗，ID 服務可能不可用！", bizKey, e);
+            // 記錄錯誤並讓後續請求觸發重試
+        }
+    }
+
+    /**
+     * 批量預熱：先用批量請求填充所有業務鍵的當前號段，再批量預取到配置的深度。
+     * 某一批失敗時 (例如其中一個業務鍵不存在)，該批退化為逐個預熱，避免單個業務鍵拖垮所有業務鍵。
+     */
+    private void warmUpBatch(Collection<String> bizKeys) {
+        for (List<String> chunk : partition(new ArrayList<>(bizKeys))) {
+            try {
+                initCurrentSegments(chunk);
             } catch (Exception e) {
-                log.error("初始填充業務鍵 {} 的號段失敗，ID 服務可能不可用！", bizKey, e);
-                // 這裡可以選擇拋出 RuntimeException 阻止服務啟動，或者記錄錯誤並讓後續請求觸發重試
+                log.warn("批量預熱業務鍵 {} 的當前號段失敗，退化為逐個預熱。", chunk, e);
+                chunk.forEach(bizKey -> warmUp(bizKey, ringBufferMap.get(bizKey)));
+                continue;
+            }
+            // 填充預取隊列，與異步預加載共用同一個單飛標誌
+            Map<String, Boolean> loadingKeys = new LinkedHashMap<>();
+            for (String bizKey : chunk) {
+                RingBuffer ringBuffer = ringBufferMap.get(bizKey);
+                // 從快照恢復的業務鍵可能已經預取滿，不再取號
+                if (ringBuffer.getCurrentSegment() != null && ringBuffer.hasPrefetchCapacity() && ringBuffer.tryStartLoading()) {
+                    loadingKeys.put(bizKey, false);
+                }
+            }
+            prefetchSegmentsBatch(loadingKeys);
+        }
+    }
+
+    /**
+     * 用一次批量請求填充多個業務鍵空的當前號段。
+     * 批量請求期間不持有 RingBuffer 的鎖，慢或失敗的批量請求不會阻塞這些業務鍵的首次請求 (它們各自同步取號)；
+     * 返回後逐個在鎖內填充，當前號段已被首次請求填充時放入預取隊列，隊列已滿時丟棄該號段。
+     */
+    private void initCurrentSegments(List<String> bizKeys) throws Exception {
+        long now = System.currentTimeMillis();
+        Map<String, Integer> steps = new LinkedHashMap<>();
+        for (String bizKey : bizKeys) {
+            RingBuffer ringBuffer = ringBufferMap.get(bizKey);
+            if (ringBuffer.getCurrentSegment() == null) {
+                steps.put(bizKey, resolveStep(bizKey, ringBuffer, false, now));
+            }
+        }
+        if (steps.isEmpty()) {
+            return;
+        }
+        Map<String, IdSegment> segments = fetchSegments(steps);
+        segments.forEach((bizKey, segment) -> {
+            RingBuffer ringBuffer = ringBufferMap.get(bizKey);
+            ringBuffer.recordFetch(segment, now);
+            if (!ringBuffer.fillCurrentIfEmpty(segment) && !ringBuffer.offerPrefetched(segment)) {
+                log.info("業務鍵 {} 的號段已在批量預熱期間填充，丟棄批量獲取的號段 [{}, {})", bizKey, segment.getMin(), segment.getMax());
             }
         });
     }
 
+    /**
+     * 獲取啟動預熱完成的信號，可用於在就緒探針中等待預熱結束。
+     */
+    public CompletableFuture<Void> getWarmUpFuture() {
+        return warmUpFuture;
+    }
+
+    /**
+     * 獲取所有已註冊業務鍵的 RingBuffer (只讀視圖)，用於讀取剩餘 ID 數量和運行統計。
+     */
+    public Map<String, RingBuffer> getRingBuffers() {
+        return Collections.unmodifiableMap(ringBufferMap);
+    }
+
+    /**
+     * 添加懶加載註冊新業務鍵時的回調，回調在發號線程中執行，應避免耗時操作。
+     */
+    public void addRegistrationListener(BiConsumer<String, RingBuffer> listener) {
+        Assert.notNull(listener, "回調不能為空");
+        registrationListeners.add(listener);
+    }
 
     @Override
     public long generateLongId() {
@@ -100,85 +328,482 @@ public class SegmentIdGenerator implements IIdGenerator {
      * @return 生成的 ID
      */
     public long generateLongId(String bizKey) {
+        RingBuffer ringBuffer = getRingBuffer(bizKey);
+
+        while (true) {
+            IdSegment currentSegment = getOrFillCurrentSegment(bizKey, ringBuffer);
+
+            long id = currentSegment.getAndIncrement();
+            if (id != -1) { // 成功從當前號段獲取到 ID
+                checkPreload(bizKey, ringBuffer, currentSegment);
+                return id;
+            }
+            // 當前號段已用盡，切換到下一個號段後再次循環
+            switchToNextSegment(bizKey, ringBuffer, currentSegment);
+        }
+    }
+
+    @Override
+    public void fillIds(long[] dest) {
+        fillIds(segmentProperties.getDefaultBizKey(), dest);
+    }
+
+    /**
+     * 批量生成指定業務鍵的長整型 ID。
+     *
+     * @param bizKey 業務鍵
+     * @param count  需要生成的 ID 數量
+     * @return 生成的 ID 數組
+     */
+    public long[] generateLongIds(String bizKey, int count) {
+        Assert.isTrue(count >= 0, "批量生成的 ID 數量不能小於 0");
+        long[] ids = new long[count];
+        fillIds(bizKey, ids);
+        return ids;
+    }
+
+    /**
+     * 使用指定業務鍵的 ID 填滿目標數組。
+     * 每次從當前號段中原子地切出一段連續區間，而不是逐個調用 getAndIncrement()。
+     *
+     * @param bizKey 業務鍵
+     * @param dest   目標數組
+     */
+    public void fillIds(String bizKey, long[] dest) {
+        Assert.notNull(dest, "目標數組不能為空");
+        RingBuffer ringBuffer = getRingBuffer(bizKey);
+
+        int filled = 0;
+        while (filled < dest.length) {
+            IdSegment currentSegment = getOrFillCurrentSegment(bizKey, ringBuffer);
+
+            int remaining = dest.length - filled;
+            long start = currentSegment.getAndAdd(remaining);
+            if (start != -1) {
+                int count = (int) Math.min(remaining, currentSegment.getMax() - start);
+                for (int i = 0; i < count; i++) {
+                    dest[filled + i] = start + i;
+                }
+                filled += count;
+                checkPreload(bizKey, ringBuffer, currentSegment);
+            } else {
+                switchToNextSegment(bizKey, ringBuffer, currentSegment);
+            }
+        }
+    }
+
+    /**
+     * 獲取業務鍵對應的環形緩衝區。
+     */
+    private RingBuffer getRingBuffer(String bizKey) {
         Assert.hasText(bizKey, "業務鍵不能為空");
         RingBuffer ringBuffer = ringBufferMap.get(bizKey);
-        if (ringBuffer == null) {
+        if (ringBuffer != null) {
+            return ringBuffer;
+        }
+        if (!segmentProperties.isLazyRegister()) {
             throw new IllegalArgumentException("未找到業務鍵 [" + bizKey + "] 對應的號段緩衝區，請檢查配置。");
         }
+        // 懶加載註冊：只創建空的 RingBuffer，號段在 getOrFillCurrentSegment 中單飛填充
+        RingBuffer created = new RingBuffer(segmentProperties.getPrefetchDepth());
+        RingBuffer existing = ringBufferMap.putIfAbsent(bizKey, created);
+        if (existing != null) {
+            return existing;
+        }
+        log.info("業務鍵 {} 首次使用，懶加載註冊 Segment RingBuffer", bizKey);
+        registrationListeners.forEach(listener -> listener.accept(bizKey, created));
+        return created;
+    }
 
-        while (true) {
+    /**
+     * 獲取當前號段，如果當前緩衝區為空則同步填充。
+     */
+    private IdSegment getOrFillCurrentSegment(String bizKey, RingBuffer ringBuffer) {
+        IdSegment currentSegment = ringBuffer.getCurrentSegment();
+        if (currentSegment != null) {
+            return currentSegment;
+        }
+        try {
+            currentSegment = initCurrentSegment(bizKey, ringBuffer);
+        } catch (IllegalStateException e) {
+            throw e; // 生成器已關閉
+        } catch (Exception e) {
+            log.error("緊急填充業務鍵 {} 的號段失敗，請檢查號段提供者！", bizKey, e);
+            throw new RuntimeException("獲取 ID 失敗：號段填充異常。", e);
+        }
+        // 懶加載註冊或預熱失敗的業務鍵，異步補齊預取隊列
+        if (ringBuffer.hasPrefetchCapacity()) {
+            preloadNextSegment(bizKey, ringBuffer, false);
+        }
+        return currentSegment;
+    }
+
+    /**
+     * 填充空的當前緩衝區 (首次使用、啟動預熱或錯誤恢復時發生)。
+     * 持有 RingBuffer 的鎖，並發的首次請求和預熱任務中只有一個會訪問號段提供者 (single-flight)。
+     */
+    private IdSegment initCurrentSegment(String bizKey, RingBuffer ringBuffer) throws Exception {
+        Lock lock = ringBuffer.getLock();
+        lock.lock();
+        try {
+            checkNotClosed();
             IdSegment currentSegment = ringBuffer.getCurrentSegment();
             if (currentSegment == null) {
-                // 緩衝區為空，嘗試填充 (首次啟動或錯誤恢復時可能發生)
-                log.warn("業務鍵 {} 的當前號段為空，嘗試緊急填充。", bizKey);
+                currentSegment = fetchSegment(bizKey, ringBuffer, false);
+                ringBuffer.fillCurrentIfEmpty(currentSegment);
+            }
+            return currentSegment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 從號段提供者獲取下一個號段。
+     * 啟用動態步長時，根據該業務鍵的取號間隔計算本次請求的步長；不參與調整的取號沿用當前步長。
+     *
+     * @param adjustStep 是否允許調整步長 (啟動預熱和同一輪連續預取不參與調整)
+     */
+    private IdSegment fetchSegment(String bizKey, RingBuffer ringBuffer, boolean adjustStep) throws Exception {
+        long now = System.currentTimeMillis();
+        int step = resolveStep(bizKey, ringBuffer, adjustStep, now);
+        long start = System.nanoTime();
+        IdSegment segment;
+        try {
+            segment = step > 0
+                    ? idSegmentProvider.getNextSegment(bizKey, step)
+                    : idSegmentProvider.getNextSegment(bizKey);
+        } catch (Exception e) {
+            ringBuffer.recordRefillFailure();
+            throw e;
+        }
+        ringBuffer.recordRefill(System.nanoTime() - start);
+        ringBuffer.recordFetch(segment, now);
+        return segment;
+    }
+
+    /**
+     * 從號段提供者批量獲取號段，並把本次請求的耗時記錄到每個業務鍵。
+     */
+    private Map<String, IdSegment> fetchSegments(Map<String, Integer> steps) throws Exception {
+        long start = System.nanoTime();
+        Map<String, IdSegment> segments;
+        try {
+            segments = idSegmentProvider.getNextSegments(steps);
+        } catch (Exception e) {
+            steps.keySet().forEach(bizKey -> ringBufferMap.get(bizKey).recordRefillFailure());
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        segments.keySet().forEach(bizKey -> ringBufferMap.get(bizKey).recordRefill(elapsed));
+        return segments;
+    }
+
+    /**
+     * 計算本次取號請求的步長。
+     *
+     * @return 請求的步長，0 表示使用提供者自身的步長配置
+     */
+    private int resolveStep(String bizKey, RingBuffer ringBuffer, boolean adjustStep, long now) {
+        if (!segmentProperties.isAdaptiveStep()) {
+            return 0;
+        }
+        if (!adjustStep) {
+            return ringBuffer.getCurrentStep();
+        }
+        int step = ringBuffer.nextStep(now, segmentProperties.getStepAdjustWindowMillis(), segmentProperties.getMaxStep());
+        // 步長可能每次補充都變化，當前步長已由指標上報，這裡只在 DEBUG 級別記錄
+        if (step > 0 && step != ringBuffer.getCurrentStep() && log.isDebugEnabled()) {
+            log.debug("業務鍵 {} 動態調整號段步長: {} -> {}", bizKey, ringBuffer.getCurrentStep(), step);
+        }
+        return step;
+    }
+
+    /**
+     * 判斷是否需要異步補齊預取隊列：
+     * 預取數量低於水位，或者預取隊列已空且當前號段即將用盡。
+     */
+    private void checkPreload(String bizKey, RingBuffer ringBuffer, IdSegment currentSegment) {
+        int prefetchedCount = ringBuffer.getPrefetchedCount();
+        if (prefetchedCount >= ringBuffer.getPrefetchDepth()) {
+            return;
+        }
+        if (prefetchedCount < segmentProperties.getPrefetchLowWaterMark()
+                || (prefetchedCount == 0
+                && currentSegment.isAlmostExhausted()
+                && System.currentTimeMillis() > currentSegment.getNextReadyTime())) {
+            preloadNextSegment(bizKey, ringBuffer, true);
+        }
+    }
+
+    /**
+     * 當前號段已用盡，切換到預取隊列中的下一個號段。
+     * 預取隊列為空但有預加載任務在執行時，限時等待其結果；仍拿不到時才同步緊急填充。
+     * 整個過程持有 RingBuffer 的鎖，並發線程中只有第一個會真正切換，其餘線程直接重試取號。
+     *
+     * @param exhausted 調用方觀察到的已用盡號段
+     */
+    private void switchToNextSegment(String bizKey, RingBuffer ringBuffer, IdSegment exhausted) {
+        Lock lock = ringBuffer.getLock();
+        lock.lock();
+        try {
+            if (ringBuffer.getCurrentSegment() != exhausted) {
+                return; // 其他線程已經完成切換
+            }
+            checkNotClosed();
+            IdSegment next = ringBuffer.pollPrefetched(segmentProperties.getSwitchWaitTimeoutMillis());
+            if (next == null) {
+                // 預取隊列為空且預加載未能及時完成，同步緊急填充
+                log.warn("業務鍵 {} 沒有可用的預取號段，嘗試緊急填充。", bizKey);
+                ringBuffer.recordEmergencyFill();
+                next = fetchSegment(bizKey, ringBuffer, true);
+                // 更新 nextReadyTime，防止頻繁觸發
+                next.setNextReadyTime(System.currentTimeMillis() + segmentProperties.getPreloadIntervalMillis());
+            }
+            ringBuffer.switchSegment(exhausted, next);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("獲取 ID 失敗：等待預取號段時被中斷。", e);
+        } catch (IllegalStateException e) {
+            throw e; // 生成器已關閉
+        } catch (Exception e) {
+            log.error("業務鍵 {} 號段切換或緊急填充失敗，請檢查號段提供者！", bizKey, e);
+            throw new RuntimeException("獲取 ID 失敗：號段切換異常。", e);
+        } finally {
+            lock.unlock();
+        }
+        // 切換消耗了一個預取號段，低於水位時異步補齊
+        checkPreload(bizKey, ringBuffer, ringBuffer.getCurrentSegment());
+    }
+
+    /**
+     * 異步補齊預取隊列。
+     * 通過 RingBuffer 自帶的預加載標誌保證同一業務鍵同時只有一個預加載任務。
+     *
+     * @param bizKey 業務鍵
+     * @param ringBuffer 環形緩衝區
+     * @param adjustStep 是否允許調整步長
+     */
+    private void preloadNextSegment(String bizKey, RingBuffer ringBuffer, boolean adjustStep) {
+        if (!ringBuffer.tryStartLoading()) {
+            return; // 已有預加載任務在執行
+        }
+        if (batchFetch) {
+            // 登記後由批量補齊任務統一取號，同一時間窗口內的多個業務鍵合併成一次請求
+            pendingRefills.put(bizKey, adjustStep);
+            scheduleRefillDrain();
+            return;
+        }
+        try {
+            executorService.submit(() -> {
                 try {
-                    IdSegment newSegment = idSegmentProvider.getNextSegment(bizKey);
-                    ringBuffer.fillSegment(ringBuffer.currentPos, newSegment); // 填充當前緩衝區
-                    currentSegment = ringBuffer.getCurrentSegment();
+                    prefetchSegments(bizKey, ringBuffer, adjustStep);
                 } catch (Exception e) {
-                    log.error("緊急填充業務鍵 {} 的號段失敗，請檢查號段提供者！", bizKey, e);
-                    throw new RuntimeException("獲取 ID 失敗：號段填充異常。", e);
+                    log.error("異步預加載業務鍵 {} 的號段失敗！", bizKey, e);
+                } finally {
+                    ringBuffer.finishLoading();
                 }
+            });
+        } catch (RejectedExecutionException e) {
+            ringBuffer.finishLoading();
+            log.error("異步預加載業務鍵 {} 的任務提交失敗！", bizKey, e);
+        }
+    }
+
+    /**
+     * 連續取號直到預取隊列填滿，調用方必須持有預加載標誌。
+     * 同一輪預取只在第一次取號時調整步長。
+     */
+    private void prefetchSegments(String bizKey, RingBuffer ringBuffer, boolean adjustStep) throws Exception {
+        boolean adjust = adjustStep;
+        while (!closed && ringBuffer.hasPrefetchCapacity()) {
+            IdSegment newSegment = fetchSegment(bizKey, ringBuffer, adjust);
+            adjust = false;
+            // 更新 nextReadyTime，防止頻繁觸發
+            newSegment.setNextReadyTime(System.currentTimeMillis() + segmentProperties.getPreloadIntervalMillis());
+            if (!ringBuffer.offerPrefetched(newSegment)) {
+                log.warn("業務鍵 {} 的預取隊列已滿，丟棄預加載號段 [{}, {})",
+                        bizKey, newSegment.getMin(), newSegment.getMax());
+                return;
             }
+        }
+    }
 
-            long id = currentSegment.getAndIncrement();
-            if (id != -1) { // 成功從當前號段獲取到 ID
-                // 判斷當前號段是否即將用盡，如果用盡則異步觸發下一個號段的獲取
-                if (currentSegment.isAlmostExhausted() && System.currentTimeMillis() > currentSegment.getNextReadyTime()) {
-                    preloadNextSegment(bizKey, ringBuffer);
+    /**
+     * 提交批量補齊任務，同一時刻最多只有一個在排隊或執行。
+     */
+    private void scheduleRefillDrain() {
+        if (pendingRefills.isEmpty() || !refillDrainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executorService.submit(this::drainRefills);
+        } catch (RejectedExecutionException e) {
+            refillDrainScheduled.set(false);
+            log.error("批量預加載號段的任務提交失敗！", e);
+            // 釋放已登記業務鍵的預加載標誌，讓後續請求重新觸發
+            new ArrayList<>(pendingRefills.keySet()).forEach(bizKey -> {
+                if (pendingRefills.remove(bizKey) != null) {
+                    ringBufferMap.get(bizKey).finishLoading();
                 }
-                return id;
-            } else { // 當前號段已用盡，需要切換到下一個號段
-                log.info("業務鍵 {} 的當前號段已用盡，準備切換緩衝區。", bizKey);
-                // 嘗試切換到下一個緩衝區
-                try {
-                    // 等待下一個緩衝區準備好（可能需要等待異步填充完成）
-                    IdSegment nextSegment = ringBuffer.getNextSegment();
-                    // 如果下一個號段仍為空或不健全，則嘗試重新填充
-                    if (nextSegment == null || nextSegment.isExhausted() || nextSegment.getUpdateTime() == 0) {
-                        log.warn("業務鍵 {} 的下一個號段未準備好或已用盡，嘗試緊急填充。", bizKey);
-                        IdSegment newSegment = idSegmentProvider.getNextSegment(bizKey);
-                        ringBuffer.fillSegment(ringBuffer.getNextPos(), newSegment);
-                        // 更新 nextReadyTime，防止頻繁觸發
-                        newSegment.setNextReadyTime(System.currentTimeMillis() + segmentProperties.getPreloadIntervalMillis());
+            });
+        }
+    }
+
+    /**
+     * 批量補齊任務：取走所有已登記的業務鍵，合併成批量請求補齊預取隊列，直到沒有新的登記。
+     */
+    private void drainRefills() {
+        try {
+            while (!pendingRefills.isEmpty()) {
+                Map<String, Boolean> batch = new LinkedHashMap<>();
+                for (String bizKey : new ArrayList<>(pendingRefills.keySet())) {
+                    Boolean adjustStep = pendingRefills.remove(bizKey);
+                    if (adjustStep != null) {
+                        batch.put(bizKey, adjustStep);
                     }
-                    ringBuffer.switchSegment(); // 切換緩衝區
-                    // 再次循環，從新的緩衝區獲取 ID
-                } catch (Exception e) {
-                    log.error("業務鍵 {} 號段切換或緊急填充失敗，請檢查號段提供者！", bizKey, e);
-                    throw new RuntimeException("獲取 ID 失敗：號段切換異常。", e);
+                }
+                for (List<String> chunk : partition(new ArrayList<>(batch.keySet()))) {
+                    Map<String, Boolean> chunkBatch = new LinkedHashMap<>();
+                    chunk.forEach(bizKey -> chunkBatch.put(bizKey, batch.get(bizKey)));
+                    prefetchSegmentsBatch(chunkBatch);
                 }
             }
+        } finally {
+            refillDrainScheduled.set(false);
         }
+        // 清空隊列與釋放標誌之間可能有新的登記
+        scheduleRefillDrain();
     }
 
     /**
-     * 異步預加載下一個號段。
+     * 用批量請求把多個業務鍵的預取隊列補齊到配置的深度，結束後釋放這些業務鍵的預加載標誌。
+     * 調用方必須已持有這些業務鍵的預加載標誌；每一輪只在第一次取號時調整步長。
      *
-     * @param bizKey 業務鍵
-     * @param ringBuffer 環形緩衝區
+     * @param adjustSteps 業務鍵 -> 是否允許調整步長
      */
-    private void preloadNextSegment(String bizKey, RingBuffer ringBuffer) {
-        // 使用 AtomicBoolean 避免重複觸發，如果已有任務在執行，則跳過
-        AtomicBoolean isLoading = new AtomicBoolean(false); // 這裡需要每個 RingBuffer 有自己的 isLoading 標誌
-        // 可以在 RingBuffer 類中添加此字段
-        // 為了簡化，這裡直接用一個全局標誌，但更好的方式是 RingBuffer 內部管理其加載狀態
-        // 或者使用一個 ConcurrentHashMap<String, AtomicBoolean> 來管理每個 bizKey 的加載狀態
+    private void prefetchSegmentsBatch(Map<String, Boolean> adjustSteps) {
+        try {
+            Map<String, Boolean> round = adjustSteps;
+            while (!closed && !round.isEmpty()) {
+                long now = System.currentTimeMillis();
+                Map<String, Integer> steps = new LinkedHashMap<>();
+                round.forEach((bizKey, adjustStep) ->
+                        steps.put(bizKey, resolveStep(bizKey, ringBufferMap.get(bizKey), adjustStep, now)));
 
-        // 簡單實現：如果下一個緩衝區是空的，則觸發加載
-        if (ringBuffer.isSegmentEmpty(ringBuffer.getNextPos())) {
-            // 這裡可以考慮加一個鎖或AtomicBoolean來防止多個線程同時觸發預加載
-            executorService.submit(() -> {
-                try {
-                    IdSegment newSegment = idSegmentProvider.getNextSegment(bizKey);
-                    ringBuffer.fillSegment(ringBuffer.getNextPos(), newSegment);
+                Map<String, IdSegment> segments = fetchSegments(steps);
+                Map<String, Boolean> nextRound = new HashMap<>();
+                segments.forEach((bizKey, segment) -> {
+                    RingBuffer ringBuffer = ringBufferMap.get(bizKey);
+                    ringBuffer.recordFetch(segment, now);
                     // 更新 nextReadyTime，防止頻繁觸發
-                    newSegment.setNextReadyTime(System.currentTimeMillis() + segmentProperties.getPreloadIntervalMillis());
-                } catch (Exception e) {
-                    log.error("異步預加載業務鍵 {} 的號段失敗！", bizKey, e);
+                    segment.setNextReadyTime(System.currentTimeMillis() + segmentProperties.getPreloadIntervalMillis());
+                    if (!ringBuffer.offerPrefetched(segment)) {
+                        log.warn("業務鍵 {} 的預取隊列已滿，丟棄預加載號段 [{}, {})",
+                                bizKey, segment.getMin(), segment.getMax());
+                    } else if (ringBuffer.hasPrefetchCapacity()) {
+                        nextRound.put(bizKey, false);
+                    }
+                });
+                round = nextRound;
+            }
+        } catch (Exception e) {
+            log.error("批量預加載業務鍵 {} 的號段失敗！", adjustSteps.keySet(), e);
+        } finally {
+            adjustSteps.keySet().forEach(bizKey -> ringBufferMap.get(bizKey).finishLoading());
+        }
+    }
+
+    /**
+     * 按 batchFetchSize 拆分業務鍵。
+     */
+    private List<List<String>> partition(List<String> bizKeys) {
+        int size = Math.max(1, segmentProperties.getBatchFetchSize());
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < bizKeys.size(); i += size) {
+            chunks.add(bizKeys.subList(i, Math.min(i + size, bizKeys.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * 關閉生成器：停止發號並關閉異步填充執行器，啟用快照時把尚未發放的號段寫入快照文件。
+     * 先等待進行中的填充任務結束，它們取到的號段會進入預取隊列並一同寫入快照。
+     * 每個業務鍵在持有 RingBuffer 鎖的情況下封存當前號段並取出預取號段，
+     * 封存之後不會再從這些號段發放任何 ID，因此快照中的區間不會與已發放的 ID 重疊。
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        shutdownRefillExecutor();
+        if (snapshotStore == null) {
+            return;
+        }
+        try {
+            Map<String, List<SegmentRange>> snapshot = new LinkedHashMap<>();
+            ringBufferMap.forEach((bizKey, ringBuffer) -> {
+                List<SegmentRange> ranges = new ArrayList<>();
+                Lock lock = ringBuffer.getLock();
+                lock.lock();
+                try {
+                    IdSegment current = ringBuffer.getCurrentSegment();
+                    if (current != null) {
+                        long start = current.seal();
+                        if (start < current.getMax()) {
+                            ranges.add(new SegmentRange(start, current.getMax()));
+                        }
+                    }
+                    for (IdSegment segment : ringBuffer.drainPrefetched()) {
+                        long start = segment.seal();
+                        if (start < segment.getMax()) {
+                            ranges.add(new SegmentRange(start, segment.getMax()));
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (!ranges.isEmpty()) {
+                    snapshot.put(bizKey, ranges);
                 }
             });
+            snapshotStore.save(snapshot);
+            log.info("號段快照已寫入 {}，業務鍵數量: {}", segmentProperties.getSnapshotPath(), snapshot.size());
+        } catch (IOException e) {
+            log.error("寫入號段快照失敗，未發放的號段將被丟棄。", e);
+        } finally {
+            try {
+                snapshotStore.close();
+            } catch (IOException e) {
+                log.warn("關閉號段快照文件失敗。", e);
+            }
         }
     }
 
+    /**
+     * 關閉異步填充執行器，超時後中斷仍在執行的填充任務。
+     */
+    private void shutdownRefillExecutor() {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(segmentProperties.getShutdownTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("號段填充任務在 {}ms 內未結束，強制中斷。", segmentProperties.getShutdownTimeoutMillis());
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 生成器關閉後拒絕發號。
+     */
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("SegmentIdGenerator 已關閉，拒絕生成 ID。");
+        }
+    }
 }
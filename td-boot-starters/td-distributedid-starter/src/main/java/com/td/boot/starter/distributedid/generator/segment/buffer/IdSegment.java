@@ -1,42 +1,73 @@
 package com.td.boot.starter.distributedid.generator.segment.buffer;
 
-import lombok.Data;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ID 號段。
  * 包含號段的起始值、最大值和步長。
+ * 發號游標使用 AtomicLong，取號只需一次原子自增，無需加鎖。
  */
-@Data
+@Getter
 public class IdSegment {
 
-    private long max;      // 號段的最大值 (不包含)
-    private long min;      // 號段的最小值 (包含)
-    private volatile long current; // 當前已使用的 ID 值
-    private int step;      // 號段的步長
+    private final long max;      // 號段的最大值 (不包含)
+    private final long min;      // 號段的最小值 (包含)
+    private final int step;      // 號段的步長
+
+    // 發號游標，可能因並發自增而超過 max，超過部分視為號段用盡
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong cursor;
+    // 觸發預加載的游標閾值 (已使用超過 90%)
+    @Getter(AccessLevel.NONE)
+    private final long preloadThreshold;
 
     // 擴展字段，用於標識這個號段是否可用 (例如，從數據庫獲取號段時，是否已過期或無效)
-    private long updateTime; // 號段更新時間
-    private long nextReadyTime; // 下一個號段準備好時間
+    private final long updateTime; // 號段更新時間
+    @Setter
+    private volatile long nextReadyTime; // 下一個號段準備好時間
 
     public IdSegment(long min, int step) {
         this.min = min;
         this.max = min + step;
-        this.current = min;
+        this.cursor = new AtomicLong(min);
         this.step = step;
+        this.preloadThreshold = min + (long) (step * 0.9);
         this.updateTime = System.currentTimeMillis();
         this.nextReadyTime = System.currentTimeMillis() + 1000 * 60 * 5; // 默認 5 分鐘後準備獲取下一個號段
     }
 
+    /**
+     * 獲取當前已使用到的 ID 值 (不會超過 max)。
+     */
+    public long getCurrent() {
+        return Math.min(cursor.get(), max);
+    }
+
     /**
      * 從當前號段中獲取下一個 ID。
+     * 一次原子自增完成，wait-free。
      *
      * @return 下一個 ID，如果號段已用完則返回 -1
      */
-    public synchronized long getAndIncrement() {
-        if (current < max) {
-            return current++;
-        }
-        return -1; // 號段用盡
+    public long getAndIncrement() {
+        long id = cursor.getAndIncrement();
+        return id < max ? id : -1; // 超出 max 表示號段用盡
+    }
+
+    /**
+     * 從當前號段中一次性預留最多 count 個連續 ID。
+     * 實際預留數量為 min(count, max - 返回值)，調用方據此計算本次取得的區間。
+     *
+     * @param count 希望預留的 ID 數量
+     * @return 預留區間的起始 ID，如果號段已用完則返回 -1
+     */
+    public long getAndAdd(int count) {
+        long start = cursor.getAndAdd(count);
+        return start < max ? start : -1; // 號段用盡
     }
 
     /**
@@ -46,13 +77,23 @@ public class IdSegment {
      */
     public boolean isAlmostExhausted() {
         // 當前已使用量超過總量的一個閾值（例如 90%）
-        return (current - min) * 1.0 / step > 0.9;
+        return cursor.get() > preloadThreshold;
+    }
+
+    /**
+     * 封存號段：把游標推到末尾，之後的取號都返回 -1。
+     * 用於關閉時收回尚未發放的 ID，返回值之前的 ID 均已 (或正在) 發放。
+     *
+     * @return 未發放區間的起始 ID，等於 max 表示已用盡
+     */
+    public long seal() {
+        return Math.min(cursor.getAndSet(max), max);
     }
 
     /**
      * 判斷號段是否已經用盡。
      */
     public boolean isExhausted() {
-        return current >= max;
+        return cursor.get() >= max;
     }
 }
@@ -1,80 +1,306 @@
 package com.td.boot.starter.distributedid.generator.segment.buffer;
 
-import lombok.extern.slf4j.Slf4j;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-@Slf4j
+/**
+ * 號段緩衝區。
+ * 由「當前號段」和一個有界的預取隊列組成，預取深度為 1 時等價於傳統的雙緩衝區。
+ * 讀取當前號段無需加鎖；只有切換號段和填充當前號段時才持有鎖。
+ * 每個 RingBuffer 自帶預加載標誌，保證同一業務鍵同一時刻最多只有一個異步預加載任務。
+ * 切換、取號等事件只累加計數器，不在熱路徑上輸出日誌，由指標綁定器按需讀取。
+ */
 public class RingBuffer {
 
-    // 兩個號段緩衝區
-    private IdSegment[] buffer;
-    // 當前正在使用的緩衝區的索引
-    public volatile int currentPos = 0; // 0 或 1
-    // 用於獲取號段的鎖
+    // 當前正在使用的號段
+    private volatile IdSegment current;
+    // 已預取、尚未使用的號段，容量即預取深度，限制內存佔用
+    private final BlockingQueue<IdSegment> prefetched;
+    private final int prefetchDepth;
+    // 用於切換和填充號段的鎖
     private final Lock lock = new ReentrantLock();
+    // 異步預加載標誌 (single-flight)
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+
+    // 動態步長狀態，只在獲取號段 (低頻) 時讀寫
+    private int baseStep;           // 首次獲取號段的步長，作為動態步長的下限
+    private int currentStep;        // 最近一次獲取號段的步長
+    private long lastAdjustTime;    // 最近一次調整步長的時間
+    private int fetchesSinceAdjust; // 最近一次調整步長以來獲取的號段數
+
+    // 運行統計
+    private final LongAdder switchCount = new LongAdder();         // 號段切換次數
+    private final LongAdder emergencyFillCount = new LongAdder();  // 預取隊列為空時同步緊急填充的次數
+    private final LongAdder refillCount = new LongAdder();         // 從號段提供者成功取號的次數
+    private final LongAdder refillTimeNanos = new LongAdder();     // 取號累計耗時 (納秒)
+    private final LongAdder refillFailureCount = new LongAdder();  // 取號失敗次數
 
     public RingBuffer() {
-        this.buffer = new IdSegment[2]; // 雙緩衝區
+        this(1); // 默認雙緩衝區
+    }
+
+    /**
+     * @param prefetchDepth 預取隊列深度 (不含當前號段)
+     */
+    public RingBuffer(int prefetchDepth) {
+        if (prefetchDepth < 1) {
+            throw new IllegalArgumentException("預取深度不能小於 1");
+        }
+        this.prefetchDepth = prefetchDepth;
+        this.prefetched = new LinkedBlockingQueue<>(prefetchDepth);
     }
 
     /**
      * 獲取當前可用的號段。
      */
     public IdSegment getCurrentSegment() {
-        return buffer[currentPos];
+        return current;
     }
 
     /**
-     * 獲取下一個準備填充的號段。
+     * 已預取、尚未使用的號段數量。
      */
-    public IdSegment getNextSegment() {
-        return buffer[getNextPos()];
+    public int getPrefetchedCount() {
+        return prefetched.size();
     }
 
     /**
-     * 翻轉緩衝區，將當前緩衝區切換到另一個。
+     * 預取隊列深度。
      */
-    public void switchSegment() {
-        lock.lock();
-        try {
-            currentPos = getNextPos();
-            log.info("RingBuffer 緩衝區切換到索引: {}", currentPos);
-        } finally {
-            lock.unlock();
-        }
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * 當前號段剩餘可發放的 ID 數量，尚未填充時為 0。
+     */
+    public long getRemaining() {
+        IdSegment segment = current;
+        return segment == null ? 0L : segment.getMax() - segment.getCurrent();
+    }
+
+    /**
+     * 判斷是否已有預取好的號段可供切換。
+     */
+    public boolean isNextReady() {
+        return !prefetched.isEmpty();
     }
 
     /**
-     * 獲取下一個緩衝區的索引。
+     * 判斷預取隊列是否還有空位。
      */
-    public int getNextPos() {
-        return (currentPos + 1) % 2;
+    public boolean hasPrefetchCapacity() {
+        return prefetched.size() < prefetchDepth;
     }
 
     /**
-     * 填充指定索引的號段。
+     * 切換到下一個號段。
+     * 只有當前號段仍是調用方看到的已用盡號段時才切換，避免多個線程重複切換。
+     *
+     * @param exhausted 調用方觀察到的已用盡號段
+     * @param next      切換後使用的號段
+     * @return true 表示本次調用完成了切換
      */
-    public void fillSegment(int pos, IdSegment segment) {
+    public boolean switchSegment(IdSegment exhausted, IdSegment next) {
         lock.lock();
         try {
-            buffer[pos] = segment;
-            log.info("RingBuffer 索引 {} 填充號段: [{}, {})", pos, segment.getMin(), segment.getMax());
+            if (current != exhausted) {
+                return false; // 其他線程已經完成切換
+            }
+            current = next;
+            switchCount.increment();
+            return true;
         } finally {
             lock.unlock();
         }
     }
 
     /**
-     * 判斷指定索引的號段是否為空。
+     * 填充當前號段，僅在當前號段為空時生效。
+     *
+     * @return true 表示填充成功
      */
-    public boolean isSegmentEmpty(int pos) {
+    public boolean fillCurrentIfEmpty(IdSegment segment) {
         lock.lock();
         try {
-            return buffer[pos] == null;
+            if (current != null) {
+                return false;
+            }
+            current = segment;
+            return true;
         } finally {
             lock.unlock();
         }
     }
+
+    /**
+     * 將預取的號段放入隊列。
+     *
+     * @return true 表示放入成功，false 表示隊列已滿
+     */
+    public boolean offerPrefetched(IdSegment segment) {
+        return prefetched.offer(segment);
+    }
+
+    /**
+     * 取出一個預取好的號段，隊列為空時若有預加載任務在執行，則限時等待其結果。
+     *
+     * @param timeoutMillis 最長等待時間 (毫秒)
+     * @return 預取好的號段，超時或沒有預加載任務時返回 null
+     */
+    public IdSegment pollPrefetched(long timeoutMillis) throws InterruptedException {
+        IdSegment segment = prefetched.poll();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        // 預加載任務失敗時會釋放標誌，此時無需等到超時
+        while (segment == null && loading.get()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            segment = prefetched.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)), TimeUnit.NANOSECONDS);
+        }
+        return segment;
+    }
+
+    /**
+     * 取出所有預取好的號段，用於關閉時寫入快照。
+     */
+    public List<IdSegment> drainPrefetched() {
+        List<IdSegment> segments = new ArrayList<>(prefetched.size());
+        prefetched.drainTo(segments);
+        return segments;
+    }
+
+    /**
+     * 嘗試搶佔預加載標誌。
+     *
+     * @return true 表示搶佔成功，調用方負責執行預加載並在結束後調用 {@link #finishLoading()}
+     */
+    public boolean tryStartLoading() {
+        return !loading.get() && loading.compareAndSet(false, true);
+    }
+
+    /**
+     * 釋放預加載標誌。
+     */
+    public void finishLoading() {
+        loading.set(false);
+    }
+
+    /**
+     * 根據取號間隔計算下一次請求的步長 (參考 Leaf 的動態步長)。
+     * 平均每個號段的消耗時間小於調整窗口說明消耗過快，步長翻倍；超過兩倍窗口說明消耗過慢，步長減半。
+     *
+     * @param now          當前時間
+     * @param windowMillis 調整窗口 (毫秒)
+     * @param maxStep      步長上限
+     * @return 下一次請求的步長，0 表示尚未取過號段，使用提供者默認步長
+     */
+    public synchronized int nextStep(long now, long windowMillis, int maxStep) {
+        if (currentStep <= 0) {
+            return 0;
+        }
+        long duration = (now - lastAdjustTime) / Math.max(1, fetchesSinceAdjust);
+        lastAdjustTime = now;
+        fetchesSinceAdjust = 0;
+        if (duration < windowMillis) {
+            return (int) Math.min((long) currentStep * 2, Math.max(maxStep, baseStep));
+        }
+        if (duration >= windowMillis * 2) {
+            return Math.max(currentStep / 2, baseStep);
+        }
+        return currentStep;
+    }
+
+    /**
+     * 記錄一次成功的取號，更新動態步長狀態。
+     */
+    public synchronized void recordFetch(IdSegment segment, long now) {
+        if (baseStep <= 0) {
+            baseStep = segment.getStep();
+            lastAdjustTime = now;
+        }
+        currentStep = segment.getStep();
+        fetchesSinceAdjust++;
+    }
+
+    /**
+     * 最近一次獲取號段的步長。
+     */
+    public synchronized int getCurrentStep() {
+        return currentStep;
+    }
+
+    /**
+     * 獲取切換和填充號段使用的鎖，用於緊急填充與切換組合成原子操作。
+     */
+    public Lock getLock() {
+        return lock;
+    }
+
+    /**
+     * 記錄一次從號段提供者成功取號。
+     *
+     * @param elapsedNanos 取號耗時 (納秒)
+     */
+    public void recordRefill(long elapsedNanos) {
+        refillCount.increment();
+        refillTimeNanos.add(elapsedNanos);
+    }
+
+    /**
+     * 記錄一次取號失敗。
+     */
+    public void recordRefillFailure() {
+        refillFailureCount.increment();
+    }
+
+    /**
+     * 記錄一次同步緊急填充。
+     */
+    public void recordEmergencyFill() {
+        emergencyFillCount.increment();
+    }
+
+    /**
+     * 號段切換的累計次數。
+     */
+    public long getSwitchCount() {
+        return switchCount.sum();
+    }
+
+    /**
+     * 同步緊急填充的累計次數。
+     */
+    public long getEmergencyFillCount() {
+        return emergencyFillCount.sum();
+    }
+
+    /**
+     * 成功取號的累計次數。
+     */
+    public long getRefillCount() {
+        return refillCount.sum();
+    }
+
+    /**
+     * 取號的累計耗時 (納秒)。
+     */
+    public long getRefillTimeNanos() {
+        return refillTimeNanos.sum();
+    }
+
+    /**
+     * 取號失敗的累計次數。
+     */
+    public long getRefillFailureCount() {
+        return refillFailureCount.sum();
+    }
 }
@@ -9,9 +9,18 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.DefaultTransactionDefinition;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
 /**
  * 基於數據庫的 ID 號段提供者實現。
  * 通過數據庫事務和樂觀鎖（或行鎖）來保證號段獲取的原子性。
+ * 支持批量取號：多個業務鍵在同一個事務內，用一條 SELECT ... FOR UPDATE 和一條 UPDATE ... CASE 完成。
  */
 @Slf4j
 public class DbIdSegmentProvider implements IdSegmentProvider {
@@ -28,6 +37,11 @@ public class DbIdSegmentProvider implements IdSegmentProvider {
 
     @Override
     public IdSegment getNextSegment(String bizKey) throws Exception {
+        return getNextSegment(bizKey, 0);
+    }
+
+    @Override
+    public IdSegment getNextSegment(String bizKey, int requestedStep) throws Exception {
         Assert.hasText(bizKey, "業務鍵不能為空");
 
         DefaultTransactionDefinition def = new DefaultTransactionDefinition();
@@ -45,7 +59,8 @@ public class DbIdSegmentProvider implements IdSegmentProvider {
             }
 
             long currentMaxId = currentData[0];
-            int step = currentData[1].intValue();
+            // 調用方指定了步長時優先使用，否則使用配置表中的步長
+            int step = requestedStep > 0 ? requestedStep : currentData[1].intValue();
             long newMaxId = currentMaxId + step; // 計算新的 max_id
 
             // 2. 更新 max_id
@@ -70,4 +85,78 @@ public class DbIdSegmentProvider implements IdSegmentProvider {
         }
     }
 
+    @Override
+    public boolean isBatchSupported() {
+        return true;
+    }
+
+    /**
+     * 在一個事務內批量獲取多個業務鍵的號段。
+     * 按業務鍵排序後加行鎖，多個實例並發批量取號時加鎖順序一致，避免死鎖；
+     * 更新使用標準 SQL 的 CASE 表達式，一條語句更新所有行。
+     */
+    @Override
+    public Map<String, IdSegment> getNextSegments(Map<String, Integer> steps) throws Exception {
+        Assert.notEmpty(steps, "業務鍵不能為空");
+        if (steps.size() == 1) {
+            Map.Entry<String, Integer> entry = steps.entrySet().iterator().next();
+            return Collections.singletonMap(entry.getKey(), getNextSegment(entry.getKey(), entry.getValue()));
+        }
+        Map<String, Integer> sortedSteps = new TreeMap<>(steps);
+        List<String> bizKeys = new ArrayList<>(sortedSteps.keySet());
+        String placeholders = String.join(",", Collections.nCopies(bizKeys.size(), "?"));
+
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW); // 確保在新的事務中獲取號段
+        TransactionStatus status = transactionManager.getTransaction(def);
+
+        try {
+            // 1. 一次查詢並鎖定所有業務鍵的 max_id 和 step
+            String selectSql = "SELECT biz_key, max_id, step FROM t_segment_id_biz WHERE biz_key IN (" + placeholders
+                    + ") ORDER BY biz_key FOR UPDATE";
+            Map<String, long[]> currentData = new HashMap<>();
+            jdbcTemplate.query(selectSql, rs -> {
+                currentData.put(rs.getString("biz_key"), new long[]{rs.getLong("max_id"), rs.getInt("step")});
+            }, bizKeys.toArray());
+
+            // 2. 計算每個業務鍵的新 max_id，並拼接 CASE 更新語句
+            StringBuilder updateSql = new StringBuilder("UPDATE t_segment_id_biz SET max_id = CASE biz_key");
+            List<Object> args = new ArrayList<>(bizKeys.size() * 3);
+            Map<String, IdSegment> segments = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : sortedSteps.entrySet()) {
+                String bizKey = entry.getKey();
+                long[] data = currentData.get(bizKey);
+                if (data == null) {
+                    throw new IllegalArgumentException("業務鍵 [" + bizKey + "] 不存在於號段配置表 t_segment_id_biz 中。");
+                }
+                long currentMaxId = data[0];
+                // 調用方指定了步長時優先使用，否則使用配置表中的步長
+                int step = entry.getValue() != null && entry.getValue() > 0 ? entry.getValue() : (int) data[1];
+                updateSql.append(" WHEN ? THEN ?");
+                args.add(bizKey);
+                args.add(currentMaxId + step);
+                segments.put(bizKey, new IdSegment(currentMaxId + 1, step));
+            }
+            updateSql.append(" ELSE max_id END WHERE biz_key IN (").append(placeholders).append(")");
+            args.addAll(bizKeys);
+
+            // 3. 一條語句更新所有業務鍵 (行已被 FOR UPDATE 鎖定，不會出現並發修改)
+            int rowsAffected = jdbcTemplate.update(updateSql.toString(), args.toArray());
+            if (rowsAffected != bizKeys.size()) {
+                throw new RuntimeException("批量獲取號段失敗，預期更新 " + bizKeys.size() + " 行，實際更新 "
+                        + rowsAffected + " 行。bizKeys: " + bizKeys);
+            }
+
+            transactionManager.commit(status); // 提交事務
+
+            log.info("成功從數據庫批量獲取號段: bizKeys={}", bizKeys);
+
+            return segments;
+        } catch (Exception e) {
+            transactionManager.rollback(status); // 回滾事務
+            log.error("從數據庫批量獲取號段失敗: bizKeys={}", bizKeys, e);
+            throw e;
+        }
+    }
+
 }
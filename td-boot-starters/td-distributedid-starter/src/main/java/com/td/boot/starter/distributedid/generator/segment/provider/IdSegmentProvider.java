@@ -3,6 +3,9 @@ package com.td.boot.starter.distributedid.generator.segment.provider;
 
 import com.td.boot.starter.distributedid.generator.segment.buffer.IdSegment;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * ID 號段提供者接口。
  * 定義了從外部源（如數據庫或 Redis）獲取新號段的方法。
@@ -18,4 +21,43 @@ public interface IdSegmentProvider {
      * @throws Exception 如果獲取失敗
      */
     IdSegment getNextSegment(String bizKey) throws Exception;
+
+    /**
+     * 按調用方指定的步長獲取指定業務鍵的下一個 ID 號段。
+     * 用於動態調整步長：消耗快時加大步長減少取號次數，消耗慢時縮小步長減少重啟浪費。
+     * 默認實現忽略指定步長，使用提供者自身的步長配置。
+     *
+     * @param bizKey 業務鍵
+     * @param step   期望的步長，小於等於 0 時使用提供者自身的步長配置
+     * @return 新獲取的號段
+     * @throws Exception 如果獲取失敗
+     */
+    default IdSegment getNextSegment(String bizKey, int step) throws Exception {
+        return getNextSegment(bizKey);
+    }
+
+    /**
+     * 是否原生支持批量獲取號段。
+     * 返回 true 時，{@link #getNextSegments(Map)} 應在一次交互 (例如一個事務) 內完成多個業務鍵的取號，
+     * SegmentIdGenerator 會把啟動預熱和並發的異步補齊合併成批量請求。
+     */
+    default boolean isBatchSupported() {
+        return false;
+    }
+
+    /**
+     * 批量獲取多個業務鍵的下一個 ID 號段，每個業務鍵各取一個號段。
+     * 默認實現逐個調用 {@link #getNextSegment(String, int)}。
+     *
+     * @param steps 業務鍵到期望步長的映射，步長小於等於 0 時使用提供者自身的步長配置
+     * @return 業務鍵到新號段的映射
+     * @throws Exception 如果獲取失敗
+     */
+    default Map<String, IdSegment> getNextSegments(Map<String, Integer> steps) throws Exception {
+        Map<String, IdSegment> segments = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : steps.entrySet()) {
+            segments.put(entry.getKey(), getNextSegment(entry.getKey(), entry.getValue()));
+        }
+        return segments;
+    }
 }
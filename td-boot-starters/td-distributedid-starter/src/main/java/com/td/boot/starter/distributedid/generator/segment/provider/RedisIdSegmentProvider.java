@@ -2,21 +2,51 @@ package com.td.boot.starter.distributedid.generator.segment.provider;
 
 import com.td.boot.starter.distributedid.generator.segment.buffer.IdSegment;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.util.Assert;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 基於 Redis 的 ID 號段提供者實現。
- * 利用 Redis 的原子性操作來獲取號段，性能較高。
+ * 利用 Lua 腳本在 Redis 端原子地讀取業務鍵的步長並推進計數器，性能較高。
+ * 每個業務鍵的步長保存在與計數器位於同一哈希槽的鍵中 (見 {@link #stepKey(String)})，未配置時使用默認步長，
+ * 因此腳本在 Redis Cluster 中不會出現 CROSSSLOT 錯誤；
+ * 批量取號時多個業務鍵的腳本通過 pipeline 在一次網絡往返內執行。
  */
 @Slf4j
-public class RedisIdSegmentProvider implements IdSegmentProvider{
+public class RedisIdSegmentProvider implements IdSegmentProvider {
 
     private final StringRedisTemplate redisTemplate;
     private final int defaultStep; // 默認步長
 
     // Redis Key 前綴
     private static final String REDIS_KEY_PREFIX = "distributed_id:segment:";
+    // 步長鍵的後綴
+    private static final String STEP_KEY_SUFFIX = ":step";
+
+    /**
+     * KEYS[1]: 計數器 Key，KEYS[2]: 步長 Key (與計數器位於同一哈希槽)
+     * ARGV[1]: 調用方指定的步長 (小於等於 0 表示讀取步長 Key 中的步長)，ARGV[2]: 默認步長
+     * 返回 {新的最大值, 實際使用的步長}
+     */
+    private static final String NEXT_SEGMENT_SCRIPT =
+            "local step = tonumber(ARGV[1]) " +
+            "if step <= 0 then step = tonumber(redis.call('get', KEYS[2]) or ARGV[2]) end " +
+            "local max = redis.call('incrby', KEYS[1], step) " +
+            "return {max, step}";
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> NEXT_SEGMENT_REDIS_SCRIPT = new DefaultRedisScript<>(NEXT_SEGMENT_SCRIPT, List.class);
+    private static final byte[] NEXT_SEGMENT_SCRIPT_BYTES = NEXT_SEGMENT_SCRIPT.getBytes(StandardCharsets.UTF_8);
 
     public RedisIdSegmentProvider(StringRedisTemplate redisTemplate, int defaultStep) {
         Assert.notNull(redisTemplate, "StringRedisTemplate 不能為空");
@@ -27,20 +57,83 @@ public class RedisIdSegmentProvider implements IdSegmentProvider{
 
     @Override
     public IdSegment getNextSegment(String bizKey) throws Exception {
+        return getNextSegment(bizKey, 0);
+    }
+
+    @Override
+    public IdSegment getNextSegment(String bizKey, int requestedStep) throws Exception {
         Assert.hasText(bizKey, "業務鍵不能為空");
 
-        String redisKey = REDIS_KEY_PREFIX + bizKey;
-        Long newMax = redisTemplate.opsForValue().increment(redisKey, defaultStep); // 原子性遞增
+        List<?> result = redisTemplate.execute(NEXT_SEGMENT_REDIS_SCRIPT,
+                Arrays.asList(counterKey(bizKey), stepKey(bizKey)),
+                String.valueOf(requestedStep), String.valueOf(defaultStep));
+        return toSegment(bizKey, result);
+    }
+
+    @Override
+    public boolean isBatchSupported() {
+        return true;
+    }
+
+    /**
+     * 批量取號：每個業務鍵執行一次腳本，所有腳本通過 pipeline 一次發送。
+     * pipeline 中使用 EVAL 而不是 EVALSHA，避免腳本未緩存時 NOSCRIPT 錯誤無法在 pipeline 內回退。
+     */
+    @Override
+    public Map<String, IdSegment> getNextSegments(Map<String, Integer> steps) throws Exception {
+        Assert.notEmpty(steps, "業務鍵不能為空");
+        List<String> bizKeys = new ArrayList<>(steps.keySet());
+        byte[] defaultStepArg = String.valueOf(defaultStep).getBytes(StandardCharsets.UTF_8);
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String bizKey : bizKeys) {
+                Assert.hasText(bizKey, "業務鍵不能為空");
+                Integer step = steps.get(bizKey);
+                connection.scriptingCommands().eval(NEXT_SEGMENT_SCRIPT_BYTES, ReturnType.MULTI, 2,
+                        counterKey(bizKey).getBytes(StandardCharsets.UTF_8),
+                        stepKey(bizKey).getBytes(StandardCharsets.UTF_8),
+                        String.valueOf(step != null ? step : 0).getBytes(StandardCharsets.UTF_8),
+                        defaultStepArg);
+            }
+            return null;
+        });
+
+        if (results.size() != bizKeys.size()) {
+            throw new RuntimeException("從 Redis 批量獲取號段失敗，預期 " + bizKeys.size() + " 個結果，實際 "
+                    + results.size() + " 個。bizKeys: " + bizKeys);
+        }
+        Map<String, IdSegment> segments = new LinkedHashMap<>();
+        for (int i = 0; i < bizKeys.size(); i++) {
+            segments.put(bizKeys.get(i), toSegment(bizKeys.get(i), (List<?>) results.get(i)));
+        }
+        return segments;
+    }
 
-        if (newMax == null) {
-            throw new RuntimeException("從 Redis 獲取號段失敗，Redis 返回 null。bizKey: " + bizKey);
+    /**
+     * 將腳本返回的 {新的最大值, 步長} 轉換為號段。
+     */
+    private IdSegment toSegment(String bizKey, List<?> result) {
+        if (result == null || result.size() < 2) {
+            throw new RuntimeException("從 Redis 獲取號段失敗，Redis 返回 " + result + "。bizKey: " + bizKey);
         }
+        long newMax = ((Number) result.get(0)).longValue();
+        int step = ((Number) result.get(1)).intValue();
 
-        long minId = newMax - defaultStep; // 號段起始值 (不包含舊值，從舊值+1開始)
+        long minId = newMax - step; // 號段起始值 (不包含舊值，從舊值+1開始)
         log.info("成功從 Redis 獲取號段: bizKey={}, minId={}, newMax={}, step={}",
-                bizKey, minId, newMax, defaultStep);
+                bizKey, minId, newMax, step);
 
-        return new IdSegment(minId + 1, defaultStep); // 返回新的號段，min 是舊的 maxId + 1
+        return new IdSegment(minId + 1, step); // 返回新的號段，min 是舊的 maxId + 1
+    }
+
+    /**
+     * 設置 Redis 中某個業務鍵的步長，之後未指定步長的取號請求都會使用該步長。
+     */
+    public void setStep(String bizKey, int step) {
+        Assert.hasText(bizKey, "業務鍵不能為空");
+        Assert.isTrue(step > 0, "步長必須大於 0");
+        redisTemplate.opsForValue().set(stepKey(bizKey), String.valueOf(step));
+        log.info("Redis 號段 {} 的步長設置為 {}", bizKey, step);
     }
 
     /**
@@ -48,7 +141,7 @@ public class RedisIdSegmentProvider implements IdSegmentProvider{
      * 只有當 key 不存在時才會設置。
      */
     public void initSegment(String bizKey, long initialValue) {
-        String redisKey = REDIS_KEY_PREFIX + bizKey;
+        String redisKey = counterKey(bizKey);
         Boolean setSuccess = redisTemplate.opsForValue().setIfAbsent(redisKey, String.valueOf(initialValue));
         if (Boolean.TRUE.equals(setSuccess)) {
             log.info("Redis 號段 {} 初始化成功，初始值為 {}", bizKey, initialValue);
@@ -56,4 +149,27 @@ public class RedisIdSegmentProvider implements IdSegmentProvider{
             log.warn("Redis 號段 {} 已存在，無需初始化。", bizKey);
         }
     }
+
+    /**
+     * 業務鍵的計數器 Key。
+     */
+    static String counterKey(String bizKey) {
+        return REDIS_KEY_PREFIX + bizKey;
+    }
+
+    /**
+     * 業務鍵的步長 Key，與計數器 Key 位於同一哈希槽。
+     * 計數器 Key 沿用不帶哈希標籤的舊格式 (改名會使已有的計數器從頭開始)，因此把整個計數器 Key 作為步長 Key 的哈希標籤；
+     * 計數器 Key 本身已帶有哈希標籤時直接追加後綴。
+     */
+    static String stepKey(String bizKey) {
+        String counterKey = counterKey(bizKey);
+        int open = counterKey.indexOf('{');
+        int close = open >= 0 ? counterKey.indexOf('}', open + 1) : -1;
+        if (close > open + 1) {
+            return counterKey + STEP_KEY_SUFFIX;
+        }
+        Assert.isTrue(counterKey.indexOf('}') < 0, "業務鍵 [" + bizKey + "] 包含不成對的 '}'，無法與步長 Key 對齊到同一哈希槽");
+        return "{" + counterKey + "}" + STEP_KEY_SUFFIX;
+    }
 }
@@ -11,4 +11,12 @@ PRIMARY KEY (`biz_key`)
 
 -- 插入示例數據
 INSERT INTO `t_segment_id_biz` (`biz_key`, `max_id`, `step`, `description`) VALUES ('order_id', 0, 1000, '訂單ID');
-INSERT INTO `t_segment_id_biz` (`biz_key`, `max_id`, `step`, `description`) VALUES ('user_id', 0, 500, '用戶ID');
\ No newline at end of file
+INSERT INTO `t_segment_id_biz` (`biz_key`, `max_id`, `step`, `description`) VALUES ('user_id', 0, 500, '用戶ID');
+
+-- 工作節點 ID 租約表 (snowflake.worker-id-assigner = DB 時使用)
+CREATE TABLE `t_worker_id_lease` (
+`node_id` INT NOT NULL COMMENT '節點 ID (數據中心 ID << 工作節點 ID 位數 | 工作節點 ID)',
+`owner_id` VARCHAR(128) NOT NULL COMMENT '租約持有者',
+`expire_time` BIGINT NOT NULL COMMENT '租約到期時間 (毫秒時間戳)',
+PRIMARY KEY (`node_id`)
+) COMMENT='Snowflake 工作節點 ID 租約表';
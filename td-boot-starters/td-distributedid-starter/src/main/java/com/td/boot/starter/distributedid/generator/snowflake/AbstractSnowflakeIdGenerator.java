@@ -0,0 +1,205 @@
+package com.td.boot.starter.distributedid.generator.snowflake;
+
+import com.td.boot.starter.distributedid.generator.IIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.worker.WorkerIdAssigner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Snowflake 生成器的公共部分：位佈局、節點 ID、租約檢查、ID 組合、批量填充以及等待系統時鐘的統計。
+ * 子類只需實現 {@link #reserveIds(int)}，決定如何推進 (時間戳, 序列號) 狀態；單個 ID 即預留 1 個序列號。
+ */
+@Slf4j
+public abstract class AbstractSnowflakeIdGenerator implements IIdGenerator {
+
+    // ID 位佈局，決定各段位數和起始時間戳
+    protected final SnowflakeLayout layout;
+    // 起始的時間戳
+    protected final long epoch;
+    // 序列號佔用的位數
+    protected final long sequenceBits;
+    // 序列號最大值
+    protected final long sequenceMask;
+    // 時間戳左移位數 (序列號位數 + 機器 ID 位數 + 數據中心 ID 位數)
+    private final long timestampLeftShift;
+    // 相對時間戳最大值，超過說明時間戳位數已用盡
+    private final long maxTimestamp;
+
+    protected final long datacenterId; // 數據中心 ID
+    protected final long workerId;     // 機器 ID
+    // 預先組合好的 (數據中心 ID | 機器 ID) 部分，每次生成時直接按位或
+    private final long nodeBits;
+    private final WorkerIdAssigner workerIdAssigner; // 用於在發號前檢查租約是否有效
+
+    // 運行統計：等待系統時鐘 (序列號溢出或借用額度用盡) 的次數和累計等待時長
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitTimeNanos = new LongAdder();
+
+    /**
+     * 構造函數。
+     * @param workerIdAssigner 工作節點 ID 分配器，用於獲取數據中心 ID 和機器 ID。
+     * @param layout ID 位佈局
+     */
+    protected AbstractSnowflakeIdGenerator(WorkerIdAssigner workerIdAssigner, SnowflakeLayout layout) {
+        Assert.notNull(workerIdAssigner, "WorkerIdAssigner 不能為空");
+        Assert.notNull(layout, "SnowflakeLayout 不能為空");
+
+        this.layout = layout;
+        this.epoch = layout.getEpoch();
+        this.sequenceBits = layout.getSequenceBits();
+        this.sequenceMask = layout.getSequenceMask();
+        this.timestampLeftShift = layout.getTimestampShift();
+        this.maxTimestamp = layout.getMaxTimestamp();
+        this.workerIdAssigner = workerIdAssigner;
+        this.datacenterId = workerIdAssigner.getDatacenterId();
+        this.workerId = workerIdAssigner.getWorkerId();
+
+        layout.validateNode(datacenterId, workerId);
+        this.nodeBits = layout.nodeBits(datacenterId, workerId);
+
+        log.info("{} 初始化成功，數據中心ID: {}, 工作節點ID: {}, 起始時間戳: {}",
+                getClass().getSimpleName(), this.datacenterId, this.workerId, this.epoch);
+    }
+
+    @Override
+    public long generateLongId() {
+        return reserveIds(1);
+    }
+
+    @Override
+    public String generateStringId() {
+        return String.valueOf(generateLongId());
+    }
+
+    @Override
+    public String generateStringId(String prefix) {
+        Assert.hasText(prefix, "ID前綴不能為空");
+        return prefix + generateLongId();
+    }
+
+    /**
+     * 批量填充 ID。
+     * 每次預留當前毫秒內的一段連續序列號，再把整段 ID 寫入數組，避免逐個 ID 競爭同一個鎖或 CAS 狀態。
+     */
+    @Override
+    public void fillIds(long[] dest) {
+        Assert.notNull(dest, "目標數組不能為空");
+        int filled = 0;
+        while (filled < dest.length) {
+            int remaining = dest.length - filled;
+            long firstId = reserveIds(remaining);
+            // 序列號位於最低位，同一毫秒內連續的序列號對應連續的 ID
+            int count = (int) Math.min(remaining, sequenceMask - (firstId & sequenceMask) + 1);
+            for (int i = 0; i < count; i++) {
+                dest[filled + i] = firstId + i;
+            }
+            filled += count;
+        }
+    }
+
+    /**
+     * 預留當前毫秒內最多 count 個連續序列號，線程安全。
+     * 實際預留數量為 min(count, 本毫秒剩餘序列號數)，可由返回 ID 的序列號部分推算。
+     *
+     * @param count 希望預留的 ID 數量，至少為 1
+     * @return 預留區間內的第一個 ID
+     */
+    protected abstract long reserveIds(int count);
+
+    /**
+     * 組合成最終的 ID。
+     *
+     * @param relativeTimestamp 相對 epoch 的時間戳
+     * @param sequence          序列號
+     */
+    protected final long composeId(long relativeTimestamp, long sequence) {
+        return (relativeTimestamp << timestampLeftShift) // 時間戳部分
+                | nodeBits                               // 數據中心 ID + 機器 ID 部分
+                | sequence;                              // 序列號部分
+    }
+
+    /**
+     * 時鐘回撥且無法容忍時拋出的異常。
+     *
+     * @param backwardMillis 回撥的毫秒數
+     * @param lastTimestamp  上次生成 ID 的時間戳
+     */
+    protected static RuntimeException clockMovedBackwards(long backwardMillis, long lastTimestamp) {
+        return new RuntimeException(String.format(
+                "時鐘回撥！拒絕為 %d 毫秒內的請求生成 ID，因為上次生成 ID 的時間是 %d 毫秒",
+                backwardMillis, lastTimestamp));
+    }
+
+    /**
+     * 檢查即將寫入 ID 的時間戳是否早於工作節點 ID 的租約到期時間，否則拒絕發號，避免與回收了該節點 ID 的其他實例產生重複 ID。
+     * 必須在鎖或 CAS 循環內、提交狀態之前調用，並傳入實際寫入 ID 的時間戳而不是當前系統時間：
+     * 線程在檢查之後停頓多久都不影響已確定的時間戳，借用或回撥後領先系統時鐘的邏輯時間戳同樣受到約束。
+     *
+     * @param timestamp 即將寫入 ID 的時間戳 (毫秒，非相對時間戳)
+     */
+    protected final void checkLease(long timestamp) {
+        long leaseExpireTime = workerIdAssigner.getLeaseExpireTime();
+        if (timestamp >= leaseExpireTime) {
+            throw new IllegalStateException(String.format(
+                    "工作節點 ID 租約已失效，拒絕生成 ID。數據中心ID: %d, 工作節點ID: %d, ID 時間戳: %d, 租約到期時間: %d",
+                    datacenterId, workerId, timestamp, leaseExpireTime));
+        }
+    }
+
+    /**
+     * 獲取當前時間戳（毫秒）。
+     *
+     * @return 當前時間戳
+     */
+    protected final long timeGen() {
+        long now = System.currentTimeMillis();
+        if (now - epoch > maxTimestamp) {
+            throw new IllegalStateException(String.format(
+                    "Snowflake 時間戳位數已用盡！%d 位時間戳最多表示到 %d 毫秒，請調整位佈局或起始時間戳。",
+                    layout.getTimestampBits(), epoch + maxTimestamp));
+        }
+        return now;
+    }
+
+    /**
+     * 等待系統時鐘到達目標時間並記錄等待統計。
+     * 相差超過 1 毫秒時休眠，最後 1 毫秒內自旋，避免長時間空轉佔用 CPU。
+     *
+     * @param target 目標時間戳
+     * @return 等待結束時的系統時間
+     */
+    protected final long waitUntil(long target) {
+        long start = System.nanoTime();
+        long now = timeGen();
+        while (now < target) {
+            long gap = target - now;
+            if (gap > 1) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(gap - 1));
+            } else {
+                Thread.onSpinWait();
+            }
+            now = timeGen();
+        }
+        waitCount.increment();
+        waitTimeNanos.add(System.nanoTime() - start);
+        return now;
+    }
+
+    /**
+     * 等待系統時鐘的累計次數：序列號溢出後等待下一毫秒，容忍時鐘漂移模式下為借用額度用盡後的等待。
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    /**
+     * 等待系統時鐘的累計時長 (納秒)。
+     */
+    public long getWaitTimeNanos() {
+        return waitTimeNanos.sum();
+    }
+}
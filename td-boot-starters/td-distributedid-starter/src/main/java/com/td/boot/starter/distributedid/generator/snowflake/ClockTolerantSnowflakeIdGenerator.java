@@ -0,0 +1,141 @@
+package com.td.boot.starter.distributedid.generator.snowflake;
+
+import com.td.boot.starter.distributedid.generator.snowflake.worker.WorkerIdAssigner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 容忍時鐘漂移的 Snowflake 分佈式 ID 生成器實現。
+ * 位佈局與 {@link SnowflakeIdGenerator} 一致，區別在於使用「邏輯時間戳」代替直接讀取的系統時間：
+ * <ul>
+ *     <li>毫秒內序列號溢出時，不再自旋等待，而是向未來「借用」下一毫秒，最多領先系統時鐘 maxBorrowMillis 毫秒；</li>
+ *     <li>系統時鐘小幅回撥 (不超過 maxBackwardMillis 毫秒) 時，繼續沿用上次的邏輯時間戳發號，而不是直接拋出異常；</li>
+ *     <li>借用額度用盡時才等待系統時鐘追上，並記錄借用、等待和回撥吸收的次數，便於評估容量。</li>
+ * </ul>
+ * 使用租約式節點 ID 時，邏輯時間戳最多可以領先系統時鐘 max(maxBorrowMillis, maxBackwardMillis) 毫秒。
+ * 不變式：發放的 ID 的邏輯時間戳總是早於租約到期時間，到達或超過到期時間時拒絕發號 (拋出 IllegalStateException)，
+ * 不會用借來的未來毫秒與回收了該節點 ID 的下一個持有者產生相同的 ID。心跳在到期前續約時到期時間隨之後移，正常情況下不會觸發拒絕。
+ */
+@Slf4j
+public class ClockTolerantSnowflakeIdGenerator extends AbstractSnowflakeIdGenerator {
+
+    // 邏輯時間戳最多可以領先系統時鐘的毫秒數
+    private final long maxBorrowMillis;
+    // 可以吸收的系統時鐘回撥毫秒數，超過則拒絕發號
+    private final long maxBackwardMillis;
+
+    private long sequence = 0L;       // 毫秒內序列 (0~4095)
+    private volatile long lastTimestamp = -1L; // 上次生成 ID 使用的邏輯時間戳
+    private long lastClock = -1L;     // 上次觀察到的系統時間
+
+    // 統計指標：借用未來毫秒的次數、吸收時鐘回撥的次數 (等待次數與時長由父類統計)
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder backwardAbsorbedCount = new LongAdder();
+
+    // 鎖對象，用於保證線程安全
+    private final Object lock = new Object();
+
+    /**
+     * 構造函數。
+     *
+     * @param workerIdAssigner  工作節點 ID 分配器，用於獲取數據中心 ID 和機器 ID。
+     * @param maxBorrowMillis   邏輯時間戳最多可以領先系統時鐘的毫秒數
+     * @param maxBackwardMillis 可以吸收的系統時鐘回撥毫秒數
+     */
+    public ClockTolerantSnowflakeIdGenerator(WorkerIdAssigner workerIdAssigner, long maxBorrowMillis, long maxBackwardMillis) {
+        this(workerIdAssigner, SnowflakeLayout.DEFAULT, maxBorrowMillis, maxBackwardMillis);
+    }
+
+    /**
+     * 構造函數。
+     *
+     * @param workerIdAssigner  工作節點 ID 分配器，用於獲取數據中心 ID 和機器 ID。
+     * @param layout            ID 位佈局
+     * @param maxBorrowMillis   邏輯時間戳最多可以領先系統時鐘的毫秒數
+     * @param maxBackwardMillis 可以吸收的系統時鐘回撥毫秒數
+     */
+    public ClockTolerantSnowflakeIdGenerator(WorkerIdAssigner workerIdAssigner, SnowflakeLayout layout,
+                                             long maxBorrowMillis, long maxBackwardMillis) {
+        super(workerIdAssigner, layout);
+        Assert.isTrue(maxBorrowMillis >= 0, "最大借用毫秒數不能小於 0");
+        Assert.isTrue(maxBackwardMillis >= 0, "最大可容忍回撥毫秒數不能小於 0");
+        this.maxBorrowMillis = maxBorrowMillis;
+        this.maxBackwardMillis = maxBackwardMillis;
+
+        log.info("ClockTolerantSnowflakeIdGenerator 最大借用: {}ms, 最大回撥容忍: {}ms", maxBorrowMillis, maxBackwardMillis);
+    }
+
+    /**
+     * 核心方法：在一次加鎖中預留當前邏輯毫秒內最多 count 個連續序列號。
+     */
+    @Override
+    protected long reserveIds(int count) {
+        synchronized (lock) {
+            long now = timeGen();
+
+            if (now < lastClock) {
+                long backward = lastClock - now;
+                if (backward > maxBackwardMillis) {
+                    // 回撥幅度超過可容忍範圍，拒絕發號
+                    throw clockMovedBackwards(backward, lastTimestamp);
+                }
+                // 小幅回撥：繼續沿用上次的邏輯時間戳
+                backwardAbsorbedCount.increment();
+            } else {
+                lastClock = now;
+            }
+
+            long timestamp = Math.max(now, lastTimestamp);
+            long firstSequence = 0L;
+            if (timestamp == lastTimestamp) {
+                firstSequence = sequence + 1;
+                if (firstSequence > sequenceMask) {
+                    // 毫秒內序列溢出：借用下一毫秒
+                    timestamp = lastTimestamp + 1;
+                    firstSequence = 0L;
+                    if (timestamp - now > maxBorrowMillis) {
+                        // 借用額度已用盡，等待系統時鐘追上
+                        now = waitUntil(timestamp - maxBorrowMillis);
+                        if (now > lastClock) {
+                            lastClock = now;
+                        }
+                    }
+                    if (timestamp > now) {
+                        borrowCount.increment();
+                    }
+                }
+            }
+
+            // 邏輯時間戳可能領先系統時鐘，必須用它而不是系統時間檢查租約
+            checkLease(timestamp);
+            long reserved = Math.min(count, sequenceMask - firstSequence + 1);
+            sequence = firstSequence + reserved - 1;
+            lastTimestamp = timestamp;
+
+            return composeId(timestamp - epoch, firstSequence);
+        }
+    }
+
+    /**
+     * 借用未來毫秒的累計次數。
+     */
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    /**
+     * 吸收系統時鐘回撥的累計次數 (按發號請求計)。
+     */
+    public long getBackwardAbsorbedCount() {
+        return backwardAbsorbedCount.sum();
+    }
+
+    /**
+     * 當前邏輯時間戳領先系統時鐘的毫秒數，0 表示未處於借用狀態。
+     */
+    public long getBorrowedMillis() {
+        return Math.max(0L, lastTimestamp - timeGen());
+    }
+}
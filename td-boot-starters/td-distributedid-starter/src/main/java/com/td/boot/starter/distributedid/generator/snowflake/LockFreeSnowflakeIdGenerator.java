@@ -0,0 +1,82 @@
+package com.td.boot.starter.distributedid.generator.snowflake;
+
+import com.td.boot.starter.distributedid.generator.snowflake.worker.WorkerIdAssigner;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 無鎖 Snowflake 分佈式 ID 生成器實現。
+ * 位佈局與 {@link SnowflakeIdGenerator} 完全一致，由 {@link SnowflakeLayout} 決定，默認為 (符號位 1bit) + (時間戳 41bit) + (數據中心 ID 5bit) + (機器 ID 5bit) + (序列號 12bit)。
+ * 將 (相對時間戳, 序列號) 打包進同一個 AtomicLong，通過 CAS 推進狀態，避免所有請求線程在同一個監視器上排隊。
+ */
+public class LockFreeSnowflakeIdGenerator extends AbstractSnowflakeIdGenerator {
+
+    /**
+     * 打包後的生成狀態：高位為相對 epoch 的上次時間戳，低 sequenceBits 位為毫秒內序列號。
+     * 初始值 0 表示尚未生成過 ID。
+     */
+    private final AtomicLong state = new AtomicLong(0L);
+
+    /**
+     * 構造函數。
+     * @param workerIdAssigner 工作節點 ID 分配器，用於獲取數據中心 ID 和機器 ID。
+     */
+    public LockFreeSnowflakeIdGenerator(WorkerIdAssigner workerIdAssigner) {
+        this(workerIdAssigner, SnowflakeLayout.DEFAULT);
+    }
+
+    /**
+     * 構造函數。
+     * @param workerIdAssigner 工作節點 ID 分配器，用於獲取數據中心 ID 和機器 ID。
+     * @param layout ID 位佈局
+     */
+    public LockFreeSnowflakeIdGenerator(WorkerIdAssigner workerIdAssigner, SnowflakeLayout layout) {
+        super(workerIdAssigner, layout);
+    }
+
+    /**
+     * 通過一次成功的 CAS 預留當前毫秒內最多 count 個連續序列號。
+     * 線程安全且無鎖，競爭失敗的線程只需重讀狀態重試。
+     */
+    @Override
+    protected long reserveIds(int count) {
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> sequenceBits;
+            long timestamp = timeGen() - epoch;
+
+            if (timestamp < lastTimestamp) {
+                // 如果當前時間小於上次 ID 生成時間，說明時鐘回撥，拋出異常
+                throw clockMovedBackwards(lastTimestamp - timestamp, lastTimestamp + epoch);
+            }
+
+            long first;
+            if (timestamp == lastTimestamp) {
+                if ((current & sequenceMask) == sequenceMask) {
+                    // 毫秒內序列溢出，等到下一毫秒後重新競爭
+                    waitUntil(lastTimestamp + epoch + 1);
+                    continue;
+                }
+                // 同一毫秒內，序列號遞增 (序列號位於低位，直接 +1 即可)
+                first = current + 1;
+            } else {
+                // 新的毫秒，序列號重置為 0
+                first = timestamp << sequenceBits;
+            }
+            // 用本次 CAS 將寫入的時間戳檢查租約，CAS 失敗重試時會重新檢查
+            checkLease((first >>> sequenceBits) + epoch);
+            long reserved = Math.min(count, sequenceMask - (first & sequenceMask) + 1);
+
+            if (state.compareAndSet(current, first + reserved - 1)) {
+                return composeId(first >>> sequenceBits, first & sequenceMask);
+            }
+        }
+    }
+
+    /**
+     * 毫秒內序列號溢出的累計次數，每次溢出都需要等待下一毫秒。
+     */
+    public long getSequenceOverflowCount() {
+        return getWaitCount();
+    }
+}
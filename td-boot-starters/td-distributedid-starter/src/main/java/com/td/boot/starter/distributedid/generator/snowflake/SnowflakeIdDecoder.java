@@ -0,0 +1,70 @@
+package com.td.boot.starter.distributedid.generator.snowflake;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+/**
+ * Snowflake ID 解析工具。
+ * 按照生成時使用的 {@link SnowflakeLayout} 從 ID 中提取時間戳、數據中心 ID、機器 ID 和序列號，
+ * 便於排查問題或按 ID 推算創建時間。
+ */
+public class SnowflakeIdDecoder {
+
+    private final SnowflakeLayout layout;
+
+    public SnowflakeIdDecoder(SnowflakeLayout layout) {
+        Assert.notNull(layout, "SnowflakeLayout 不能為空");
+        this.layout = layout;
+    }
+
+    /**
+     * 解析完整的 ID 組成部分。
+     */
+    public DecodedId decode(long id) {
+        return new DecodedId(id, extractTimestamp(id), extractDatacenterId(id), extractWorkerId(id), extractSequence(id));
+    }
+
+    /**
+     * 提取 ID 生成時的時間戳 (毫秒，Unix 時間)。
+     */
+    public long extractTimestamp(long id) {
+        return ((id >>> layout.getTimestampShift()) & layout.getMaxTimestamp()) + layout.getEpoch();
+    }
+
+    /**
+     * 提取數據中心 ID。
+     */
+    public long extractDatacenterId(long id) {
+        return (id >>> layout.getDatacenterIdShift()) & layout.getMaxDatacenterId();
+    }
+
+    /**
+     * 提取機器 ID。
+     */
+    public long extractWorkerId(long id) {
+        return (id >>> layout.getWorkerIdShift()) & layout.getMaxWorkerId();
+    }
+
+    /**
+     * 提取毫秒內序列號。
+     */
+    public long extractSequence(long id) {
+        return id & layout.getSequenceMask();
+    }
+
+    /**
+     * 解析後的 Snowflake ID。
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class DecodedId {
+        private final long id;           // 原始 ID
+        private final long timestamp;    // 生成時間戳 (毫秒，Unix 時間)
+        private final long datacenterId; // 數據中心 ID
+        private final long workerId;     // 機器 ID
+        private final long sequence;     // 毫秒內序列號
+    }
+}
@@ -0,0 +1,104 @@
+package com.td.boot.starter.distributedid.generator.snowflake;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Snowflake ID 的位佈局。
+ * 從高位到低位依次為：(符號位 1bit) + (時間戳) + (數據中心 ID) + (機器 ID) + (序列號)，各段位數和起始時間戳均可配置。
+ * 構造時校驗佈局：各段位數之和不能超過 63 位，時間戳位數必須足以表示當前時間。
+ * 例如單數據中心、大量實例的部署可以配置 0 位數據中心 ID + 10 位機器 ID；個別高吞吐節點可以減少節點位數、增加序列號位數。
+ */
+@Getter
+public class SnowflakeLayout {
+
+    /**
+     * 默認佈局：41 位時間戳 + 5 位數據中心 ID + 5 位機器 ID + 12 位序列號，起始時間 2024-01-01 00:00:00.000 (UTC+8)。
+     */
+    public static final SnowflakeLayout DEFAULT = new SnowflakeLayout(41, 5, 5, 12,
+            Instant.parse("2024-01-01T00:00:00.000+08:00").toEpochMilli());
+
+    private final int timestampBits;    // 時間戳佔用的位數
+    private final int datacenterIdBits; // 數據中心 ID 佔用的位數
+    private final int workerIdBits;     // 機器 ID 佔用的位數
+    private final int sequenceBits;     // 序列號佔用的位數
+    private final long epoch;           // 起始的時間戳 (毫秒)
+
+    private final long maxTimestamp;    // 相對時間戳最大值
+    private final long maxDatacenterId; // 數據中心 ID 最大值
+    private final long maxWorkerId;     // 機器 ID 最大值
+    private final long sequenceMask;    // 序列號最大值
+
+    private final int workerIdShift;     // 機器 ID 左移位數 (序列號位數)
+    private final int datacenterIdShift; // 數據中心 ID 左移位數 (序列號位數 + 機器 ID 位數)
+    private final int timestampShift;    // 時間戳左移位數 (序列號位數 + 機器 ID 位數 + 數據中心 ID 位數)
+
+    /**
+     * @throws IllegalArgumentException 如果佈局非法
+     */
+    public SnowflakeLayout(int timestampBits, int datacenterIdBits, int workerIdBits, int sequenceBits, long epoch) {
+        if (timestampBits < 1 || sequenceBits < 1 || datacenterIdBits < 0 || workerIdBits < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Snowflake 位佈局非法：時間戳和序列號至少佔 1 位，節點位數不能為負數。timestampBits=%d, datacenterIdBits=%d, workerIdBits=%d, sequenceBits=%d",
+                    timestampBits, datacenterIdBits, workerIdBits, sequenceBits));
+        }
+        int totalBits = timestampBits + datacenterIdBits + workerIdBits + sequenceBits;
+        if (totalBits > 63) {
+            throw new IllegalArgumentException(String.format(
+                    "Snowflake 位佈局溢出：各段位數之和 %d 超過 63 位 (最高位為符號位)。", totalBits));
+        }
+
+        this.timestampBits = timestampBits;
+        this.datacenterIdBits = datacenterIdBits;
+        this.workerIdBits = workerIdBits;
+        this.sequenceBits = sequenceBits;
+        this.epoch = epoch;
+
+        this.maxTimestamp = ~(-1L << timestampBits);
+        this.maxDatacenterId = ~(-1L << datacenterIdBits);
+        this.maxWorkerId = ~(-1L << workerIdBits);
+        this.sequenceMask = ~(-1L << sequenceBits);
+
+        this.workerIdShift = sequenceBits;
+        this.datacenterIdShift = sequenceBits + workerIdBits;
+        this.timestampShift = sequenceBits + workerIdBits + datacenterIdBits;
+
+        long elapsed = System.currentTimeMillis() - epoch;
+        if (elapsed < 0) {
+            throw new IllegalArgumentException(String.format("Snowflake 起始時間戳 %d 不能晚於當前時間。", epoch));
+        }
+        if (elapsed > maxTimestamp) {
+            throw new IllegalArgumentException(String.format(
+                    "Snowflake 時間戳位數不足：%d 位最多表示 %d 毫秒，但距起始時間已過去 %d 毫秒。",
+                    timestampBits, maxTimestamp, elapsed));
+        }
+    }
+
+    /**
+     * 校驗數據中心 ID 和機器 ID 在佈局範圍內。
+     *
+     * @throws IllegalArgumentException 如果超出範圍
+     */
+    public void validateNode(long datacenterId, long workerId) {
+        if (datacenterId > maxDatacenterId || datacenterId < 0) {
+            throw new IllegalArgumentException(String.format("數據中心 ID 不能大於 %d 或小於 0", maxDatacenterId));
+        }
+        if (workerId > maxWorkerId || workerId < 0) {
+            throw new IllegalArgumentException(String.format("工作節點 ID 不能大於 %d 或小於 0", maxWorkerId));
+        }
+    }
+
+    /**
+     * 預先組合好的 (數據中心 ID | 機器 ID) 部分。
+     */
+    public long nodeBits(long datacenterId, long workerId) {
+        return (datacenterId << datacenterIdShift) | (workerId << workerIdShift);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SnowflakeLayout[timestamp=%d, datacenterId=%d, workerId=%d, sequence=%d, epoch=%d]",
+                timestampBits, datacenterIdBits, workerIdBits, sequenceBits, epoch);
+    }
+}
@@ -0,0 +1,195 @@
+package com.td.boot.starter.distributedid.generator.snowflake.worker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基於租約的工作節點 ID 分配器。
+ * 啟動時從共享存儲中租用一個空閒的節點 ID (數據中心 ID + 工作節點 ID，默認佈局下共 10 位，0~1023)，
+ * 後台心跳定期續約；租約過期的節點 ID 可以被其他實例回收。
+ * 本地按「發起續約的時間 + TTL」記錄租約到期時間，通過 {@link #getLeaseExpireTime()} 提供給生成器；
+ * 生成器在臨界區內用實際寫入 ID 的時間戳與到期時間比較，保證本實例發放的每個 ID 的時間戳都早於租約到期時間，
+ * 包括容忍時鐘漂移模式下領先系統時鐘的邏輯時間戳。續約發現已被搶佔後到期時間變為 {@link Long#MIN_VALUE}，生成器隨即拒絕發號。
+ */
+@Slf4j
+public abstract class AbstractLeasedWorkerIdAssigner implements WorkerIdAssigner {
+
+    // 工作節點 ID 佔用的位數，與 Snowflake 位佈局保持一致
+    private final int workerIdBits;
+    // 可租用的節點 ID 總數 (2 ^ (數據中心 ID 位數 + 工作節點 ID 位數))
+    protected final int maxNodeCount;
+
+    protected final String ownerId;        // 租約持有者標識，區分不同的應用實例
+    protected final long ttlMillis;        // 租約有效期
+    private final long heartbeatIntervalMillis; // 心跳續約間隔
+
+    private volatile long nodeId = -1L;        // 租用到的節點 ID
+    private volatile long leaseExpireTime;     // 本地記錄的租約到期時間
+    private volatile boolean leaseLost;        // 租約是否已被其他實例搶佔
+    private ScheduledExecutorService heartbeatExecutor;
+
+    /**
+     * @param datacenterIdBits        數據中心 ID 佔用的位數
+     * @param workerIdBits            工作節點 ID 佔用的位數
+     * @param ttlMillis               租約有效期
+     * @param heartbeatIntervalMillis 心跳續約間隔
+     */
+    protected AbstractLeasedWorkerIdAssigner(int datacenterIdBits, int workerIdBits, long ttlMillis, long heartbeatIntervalMillis) {
+        Assert.isTrue(datacenterIdBits >= 0 && workerIdBits >= 0 && datacenterIdBits + workerIdBits <= 20,
+                "數據中心 ID 和工作節點 ID 的位數之和必須在 0~20 之間");
+        Assert.isTrue(ttlMillis > 0, "租約有效期必須大於 0");
+        Assert.isTrue(heartbeatIntervalMillis > 0 && heartbeatIntervalMillis < ttlMillis, "心跳間隔必須大於 0 且小於租約有效期");
+        this.workerIdBits = workerIdBits;
+        this.maxNodeCount = 1 << (datacenterIdBits + workerIdBits);
+        this.ttlMillis = ttlMillis;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.ownerId = generateOwnerId();
+    }
+
+    /**
+     * 租用節點 ID 並啟動心跳續約。
+     *
+     * @throws IllegalStateException 如果沒有可用的節點 ID
+     */
+    public synchronized void start() {
+        if (nodeId >= 0) {
+            return;
+        }
+        for (long candidate : candidateNodeIds()) {
+            long requestTime = System.currentTimeMillis();
+            try {
+                if (tryAcquire(candidate)) {
+                    this.leaseExpireTime = requestTime + ttlMillis;
+                    this.nodeId = candidate;
+                    break;
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("租用工作節點 ID 失敗：" + e.getMessage(), e);
+            }
+        }
+        if (nodeId < 0) {
+            throw new IllegalStateException("沒有可用的工作節點 ID，所有 " + maxNodeCount + " 個節點 ID 均已被租用。");
+        }
+
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "WorkerIdLeaseHeartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleAtFixedRate(this::heartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+
+        log.info("{} 租用工作節點 ID 成功，持有者: {}, 數據中心ID: {}, 工作節點ID: {}, 租約有效期: {}ms",
+                getClass().getSimpleName(), ownerId, getDatacenterId(), getWorkerId(), ttlMillis);
+    }
+
+    /**
+     * 心跳續約。續約失敗說明租約已過期，若節點 ID 尚未被其他實例回收則重新租用。
+     */
+    private void heartbeat() {
+        if (leaseLost) {
+            return;
+        }
+        long requestTime = System.currentTimeMillis();
+        try {
+            if (renew(nodeId) || tryAcquire(nodeId)) {
+                leaseExpireTime = requestTime + ttlMillis;
+                return;
+            }
+            leaseLost = true;
+            log.error("工作節點 ID 租約已被其他實例搶佔，停止發號！持有者: {}, 節點ID: {}", ownerId, nodeId);
+        } catch (Exception e) {
+            // 存儲暫時不可用，保留本地租約直到到期
+            log.warn("工作節點 ID 租約續約失敗，本地租約將於 {}ms 後到期。節點ID: {}",
+                    Math.max(0L, leaseExpireTime - System.currentTimeMillis()), nodeId, e);
+        }
+    }
+
+    /**
+     * 釋放租約並停止心跳。
+     */
+    public synchronized void close() {
+        if (heartbeatExecutor != null) {
+            heartbeatExecutor.shutdownNow();
+        }
+        if (nodeId >= 0 && !leaseLost) {
+            try {
+                release(nodeId);
+                log.info("已釋放工作節點 ID 租約，持有者: {}, 節點ID: {}", ownerId, nodeId);
+            } catch (Exception e) {
+                log.warn("釋放工作節點 ID 租約失敗，將等待租約自然過期。節點ID: {}", nodeId, e);
+            }
+        }
+        leaseLost = true;
+    }
+
+    @Override
+    public long getDatacenterId() {
+        return requireNodeId() >> workerIdBits;
+    }
+
+    @Override
+    public long getWorkerId() {
+        return requireNodeId() & ~(-1L << workerIdBits);
+    }
+
+    @Override
+    public long getLeaseExpireTime() {
+        return leaseLost ? Long.MIN_VALUE : leaseExpireTime;
+    }
+
+    private long requireNodeId() {
+        long id = nodeId;
+        if (id < 0) {
+            throw new IllegalStateException("工作節點 ID 尚未租用，請先調用 start()。");
+        }
+        return id;
+    }
+
+    /**
+     * 嘗試租用的節點 ID 順序。默認從隨機位置開始遍歷所有節點 ID，降低多個實例同時啟動時的衝突。
+     */
+    protected List<Long> candidateNodeIds() {
+        int offset = ThreadLocalRandom.current().nextInt(maxNodeCount);
+        List<Long> candidates = new ArrayList<>(maxNodeCount);
+        for (int i = 0; i < maxNodeCount; i++) {
+            candidates.add((long) ((offset + i) % maxNodeCount));
+        }
+        return candidates;
+    }
+
+    /**
+     * 嘗試租用指定的節點 ID，節點 ID 空閒、租約已過期或本來就由當前實例持有時成功。
+     */
+    protected abstract boolean tryAcquire(long nodeId) throws Exception;
+
+    /**
+     * 續約當前實例持有的節點 ID。
+     *
+     * @return false 表示租約已不屬於當前實例
+     */
+    protected abstract boolean renew(long nodeId) throws Exception;
+
+    /**
+     * 釋放當前實例持有的節點 ID。
+     */
+    protected abstract void release(long nodeId) throws Exception;
+
+    private static String generateOwnerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,79 @@
+package com.td.boot.starter.distributedid.generator.snowflake.worker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基於數據庫的租約式工作節點 ID 分配器。
+ * 使用表 t_worker_id_lease 記錄每個節點 ID 的持有者和到期時間 (毫秒時間戳)，到期的行可以被其他實例回收。
+ * 到期時間使用應用實例的本地時鐘，租約有效期應遠大於實例之間的時鐘偏差。
+ */
+@Slf4j
+public class DbWorkerIdAssigner extends AbstractLeasedWorkerIdAssigner {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DbWorkerIdAssigner(JdbcTemplate jdbcTemplate, int datacenterIdBits, int workerIdBits,
+                              long ttlMillis, long heartbeatIntervalMillis) {
+        super(datacenterIdBits, workerIdBits, ttlMillis, heartbeatIntervalMillis);
+        Assert.notNull(jdbcTemplate, "JdbcTemplate 不能為空");
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 一次查詢出所有已過期的節點 ID，加上表中尚不存在的節點 ID，作為候選，避免逐個探測所有節點 ID。
+     */
+    @Override
+    protected List<Long> candidateNodeIds() {
+        Set<Long> leased = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT node_id FROM t_worker_id_lease WHERE expire_time >= ?", Long.class, System.currentTimeMillis()));
+        List<Long> candidates = new ArrayList<>(Math.max(0, maxNodeCount - leased.size()));
+        int offset = ThreadLocalRandom.current().nextInt(maxNodeCount);
+        for (int i = 0; i < maxNodeCount; i++) {
+            long candidate = (offset + i) % maxNodeCount;
+            if (!leased.contains(candidate)) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    protected boolean tryAcquire(long nodeId) {
+        long now = System.currentTimeMillis();
+        // 回收已過期的租約 (或重新租用自己持有的租約)
+        int rowsAffected = jdbcTemplate.update(
+                "UPDATE t_worker_id_lease SET owner_id = ?, expire_time = ? WHERE node_id = ? AND (expire_time < ? OR owner_id = ?)",
+                ownerId, now + ttlMillis, nodeId, now, ownerId);
+        if (rowsAffected > 0) {
+            return true;
+        }
+        // 節點 ID 從未被租用過，插入新行；主鍵衝突說明被其他實例搶先
+        try {
+            jdbcTemplate.update("INSERT INTO t_worker_id_lease (node_id, owner_id, expire_time) VALUES (?, ?, ?)",
+                    nodeId, ownerId, now + ttlMillis);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    protected boolean renew(long nodeId) {
+        return jdbcTemplate.update("UPDATE t_worker_id_lease SET expire_time = ? WHERE node_id = ? AND owner_id = ?",
+                System.currentTimeMillis() + ttlMillis, nodeId, ownerId) > 0;
+    }
+
+    @Override
+    protected void release(long nodeId) {
+        jdbcTemplate.update("UPDATE t_worker_id_lease SET expire_time = 0 WHERE node_id = ? AND owner_id = ?", nodeId, ownerId);
+    }
+}
@@ -0,0 +1,58 @@
+package com.td.boot.starter.distributedid.generator.snowflake.worker;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.util.Assert;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基於 Redis 的租約式工作節點 ID 分配器。
+ * 每個節點 ID 對應一個帶過期時間的 Key，值為持有者標識；Key 過期即表示租約過期，可被其他實例回收。
+ */
+@Slf4j
+public class RedisWorkerIdAssigner extends AbstractLeasedWorkerIdAssigner {
+
+    // Redis Key 前綴
+    private static final String REDIS_KEY_PREFIX = "distributed_id:worker:";
+
+    // 僅當 Key 仍由當前實例持有時才延長過期時間
+    private static final String RENEW_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+    private static final RedisScript<Long> RENEW_REDIS_SCRIPT = new DefaultRedisScript<>(RENEW_SCRIPT, Long.class);
+
+    // 僅當 Key 仍由當前實例持有時才刪除
+    private static final String RELEASE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+    private static final RedisScript<Long> RELEASE_REDIS_SCRIPT = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisWorkerIdAssigner(StringRedisTemplate redisTemplate, int datacenterIdBits, int workerIdBits,
+                                 long ttlMillis, long heartbeatIntervalMillis) {
+        super(datacenterIdBits, workerIdBits, ttlMillis, heartbeatIntervalMillis);
+        Assert.notNull(redisTemplate, "StringRedisTemplate 不能為空");
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    protected boolean tryAcquire(long nodeId) {
+        Boolean success = redisTemplate.opsForValue().setIfAbsent(REDIS_KEY_PREFIX + nodeId, ownerId, ttlMillis, TimeUnit.MILLISECONDS);
+        return Boolean.TRUE.equals(success);
+    }
+
+    @Override
+    protected boolean renew(long nodeId) {
+        Long result = redisTemplate.execute(RENEW_REDIS_SCRIPT, Collections.singletonList(REDIS_KEY_PREFIX + nodeId),
+                ownerId, String.valueOf(ttlMillis));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    protected void release(long nodeId) {
+        redisTemplate.execute(RELEASE_REDIS_SCRIPT, Collections.singletonList(REDIS_KEY_PREFIX + nodeId), ownerId);
+    }
+}
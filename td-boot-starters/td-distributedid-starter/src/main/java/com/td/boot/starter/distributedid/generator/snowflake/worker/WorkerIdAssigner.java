@@ -19,4 +19,16 @@ public interface WorkerIdAssigner {
      * @return 工作節點 ID (通常 0-31)
      */
     long getWorkerId();
+
+    /**
+     * 當前分配的 ID 的租約到期時間 (毫秒時間戳)。
+     * 生成器只能發放時間戳早於該時刻的 ID：租約到期後節點 ID 可能被其他實例回收，
+     * 回收者發放的 ID 時間戳不早於到期時刻，兩者因此不會產生相同的 (時間戳, 節點 ID, 序列號)。
+     * 基於租約的實現在租約被其他實例搶佔或已釋放後返回 {@link Long#MIN_VALUE}；靜態分配的實現永不到期。
+     *
+     * @return 租約到期時間，{@link Long#MAX_VALUE} 表示永不到期
+     */
+    default long getLeaseExpireTime() {
+        return Long.MAX_VALUE;
+    }
 }
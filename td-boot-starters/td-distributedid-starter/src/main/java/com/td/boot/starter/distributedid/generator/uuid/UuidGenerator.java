@@ -1,6 +1,8 @@
 package com.td.boot.starter.distributedid.generator.uuid;
 
 import com.td.boot.starter.distributedid.generator.IIdGenerator;
+import com.td.boot.starter.distributedid.generator.encoder.IdEncoder;
+import com.td.boot.starter.distributedid.generator.encoder.IdEncoding;
 import org.springframework.util.Assert;
 
 import java.util.UUID;
@@ -11,6 +13,9 @@ import java.util.UUID;
  */
 public class UuidGenerator implements IIdGenerator {
 
+    // 不帶橫線的小寫十六進制編碼，直接由高低 64 位寫出，無需 toString() 再 replace("-", "")
+    private static final IdEncoder HEX_ENCODER = IdEncoder.of(IdEncoding.HEX);
+
     @Override
     public long generateLongId() {
         // UUID 主要用於字符串 ID，將其轉換為 Long 可能會丟失唯一性或導致碰撞，
@@ -23,7 +28,7 @@ public class UuidGenerator implements IIdGenerator {
 
     @Override
     public String generateStringId() {
-        return UUID.randomUUID().toString().replace("-", ""); // 移除橫線，更緊湊
+        return generateStringId(HEX_ENCODER); // 移除橫線，更緊湊
     }
 
     @Override
@@ -32,4 +37,24 @@ public class UuidGenerator implements IIdGenerator {
         return prefix + generateStringId();
     }
 
+    /**
+     * 按指定編碼器編碼完整的 128 位 UUID。
+     */
+    @Override
+    public String generateStringId(IdEncoder encoder) {
+        Assert.notNull(encoder, "ID編碼器不能為空");
+        UUID uuid = UUID.randomUUID();
+        return encoder.encode(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * 按指定編碼器將完整的 128 位 UUID 寫入緩衝區，緩衝區剩餘空間至少為 {@link IdEncoder#maxLength128()}。
+     */
+    @Override
+    public int generateId(IdEncoder encoder, byte[] dest, int offset) {
+        Assert.notNull(encoder, "ID編碼器不能為空");
+        UUID uuid = UUID.randomUUID();
+        return encoder.encode(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), dest, offset);
+    }
+
 }
@@ -0,0 +1,260 @@
+package com.td.boot.starter.distributedid.generator.uuid;
+
+import com.td.boot.starter.distributedid.generator.IIdGenerator;
+import com.td.boot.starter.distributedid.generator.encoder.IdEncoder;
+import com.td.boot.starter.distributedid.generator.encoder.IdEncoding;
+import com.td.boot.starter.distributedid.generator.snowflake.LockFreeSnowflakeIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.SnowflakeLayout;
+import com.td.boot.starter.distributedid.generator.snowflake.worker.WorkerIdAssigner;
+import org.springframework.util.Assert;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按時間排序的 UUID (RFC 9562 version 7) 生成器實現。
+ * 位佈局：(Unix 毫秒時間戳 48bit) + (版本 4bit = 7) + (毫秒內計數器 12bit) + (變體 2bit = 10) + (隨機數 62bit)。
+ * <ul>
+ *     <li>隨機數來自 ThreadLocalRandom，不經過 SecureRandom，高並發下沒有競爭；</li>
+ *     <li>(時間戳, 計數器) 打包進同一個 AtomicLong，通過 CAS 推進，保證同一生成器產生的 UUID 嚴格遞增：
+ *     計數器溢出時進位到下一毫秒，時鐘回撥時沿用上次的時間戳繼續遞增；</li>
+ *     <li>作為主鍵插入時總是追加在 B-tree 索引末尾，避免隨機 UUID 造成的頁分裂；可以使用 16 字節二進制形式存入 BINARY(16) 列。</li>
+ * </ul>
+ * 注意：隨機部分不是密碼學安全的，不能用作令牌等需要不可預測性的場景。
+ * <p>
+ * {@link #generateLongId()} 返回的 63 位正數 Long ID 不含隨機數，而是嵌入由 {@link WorkerIdAssigner} 協調分配的節點 ID，
+ * 與 Snowflake 一樣在集群內確定性唯一，見該方法說明。
+ */
+public class UuidV7Generator implements IIdGenerator {
+
+    // 不帶橫線的小寫十六進制編碼
+    private static final IdEncoder HEX_ENCODER = IdEncoder.of(IdEncoding.HEX);
+
+    // 毫秒內計數器佔用的位數 (對應 rand_a)
+    private static final int COUNTER_BITS = 12;
+    // 新的毫秒開始時，計數器從 [0, 2^11) 內的隨機值開始，保留一半空間用於遞增
+    private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+    private static final long VERSION_BITS = 0x7000L;
+    private static final long VARIANT_BITS = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    // Long ID 佈局：(Unix 毫秒時間戳 42bit) + (節點 ID 10bit) + (毫秒內序列號 11bit)，符號位固定為 0
+    private static final int LONG_NODE_BITS = 10;
+    private static final SnowflakeLayout LONG_LAYOUT = new SnowflakeLayout(42, 0, LONG_NODE_BITS, 11, 0L);
+
+    /**
+     * 打包後的生成狀態：高位為上次使用的毫秒時間戳，低 COUNTER_BITS 位為毫秒內計數器。
+     */
+    private final AtomicLong state = new AtomicLong(0L);
+
+    /**
+     * 生成 Long ID 的 Snowflake 生成器，按 {@link #LONG_LAYOUT} 佈局，起始時間戳為 Unix 紀元。
+     */
+    private final LockFreeSnowflakeIdGenerator longIdGenerator;
+
+    /**
+     * 構造函數。
+     *
+     * @param workerIdAssigner 工作節點 ID 分配器，Long ID 中的節點 ID 由它分配
+     */
+    public UuidV7Generator(WorkerIdAssigner workerIdAssigner) {
+        this(workerIdAssigner, SnowflakeLayout.DEFAULT);
+    }
+
+    /**
+     * 構造函數。
+     * Long ID 只有 10 位節點 ID，數據中心 ID 和機器 ID 按 Snowflake 佈局拼接後放入這 10 位，
+     * 佈局中兩者位數之和超過 10 時直接拋出異常，在啟動階段暴露配置問題，而不是運行時產生重複 ID。
+     *
+     * @param workerIdAssigner 工作節點 ID 分配器，Long ID 中的節點 ID 由它分配
+     * @param layout           分配器所使用的 Snowflake 位佈局，決定數據中心 ID 和機器 ID 的位數
+     * @throws IllegalArgumentException 如果數據中心 ID 和機器 ID 的位數之和超過 10 位
+     */
+    public UuidV7Generator(WorkerIdAssigner workerIdAssigner, SnowflakeLayout layout) {
+        Assert.notNull(workerIdAssigner, "WorkerIdAssigner 不能為空");
+        Assert.notNull(layout, "SnowflakeLayout 不能為空");
+        int nodeBits = layout.getDatacenterIdBits() + layout.getWorkerIdBits();
+        if (nodeBits > LONG_NODE_BITS) {
+            throw new IllegalArgumentException(String.format(
+                    "UUID_V7 的 Long ID 只有 %d 位節點 ID，但數據中心 ID (%d 位) + 機器 ID (%d 位) 共 %d 位，請減少節點位數或改用 SNOWFLAKE 策略",
+                    LONG_NODE_BITS, layout.getDatacenterIdBits(), layout.getWorkerIdBits(), nodeBits));
+        }
+        this.longIdGenerator = new LockFreeSnowflakeIdGenerator(new NodeIdAssigner(workerIdAssigner, layout), LONG_LAYOUT);
+    }
+
+    /**
+     * 生成一個 UUIDv7。
+     */
+    public UUID generateUuid() {
+        return new UUID(nextMostSigBits(), nextLeastSigBits());
+    }
+
+    /**
+     * 生成一個 16 字節的二進制 UUIDv7 (大端序)，可直接存入 BINARY(16) 列，按字節比較的順序與生成順序一致。
+     */
+    public byte[] generateBinaryId() {
+        byte[] bytes = new byte[16];
+        writeBinaryId(bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * 將一個 16 字節的二進制 UUIDv7 寫入緩衝區。
+     *
+     * @param dest   目標緩衝區，剩餘空間至少 16 字節
+     * @param offset 寫入的起始位置
+     */
+    public void writeBinaryId(byte[] dest, int offset) {
+        Assert.isTrue(dest != null && offset >= 0 && dest.length - offset >= 16, "目標緩衝區剩餘空間不足 16 字節");
+        writeLong(nextMostSigBits(), dest, offset);
+        writeLong(nextLeastSigBits(), dest, offset + 8);
+    }
+
+    /**
+     * 將 UUID 轉換為 16 字節的二進制形式 (大端序)。
+     */
+    public static byte[] toBytes(UUID uuid) {
+        Assert.notNull(uuid, "UUID 不能為空");
+        byte[] bytes = new byte[16];
+        writeLong(uuid.getMostSignificantBits(), bytes, 0);
+        writeLong(uuid.getLeastSignificantBits(), bytes, 8);
+        return bytes;
+    }
+
+    /**
+     * 從 16 字節的二進制形式 (大端序) 還原 UUID。
+     */
+    public static UUID fromBytes(byte[] bytes) {
+        Assert.isTrue(bytes != null && bytes.length == 16, "二進制 UUID 必須為 16 字節");
+        return new UUID(readLong(bytes, 0), readLong(bytes, 8));
+    }
+
+    /**
+     * 生成按時間排序的 63 位正數 Long ID：(Unix 毫秒時間戳 42bit) + (節點 ID 10bit) + (毫秒內序列號 11bit)。
+     * 即以 Unix 紀元為起點的 Snowflake ID：節點 ID 由 {@link WorkerIdAssigner} 協調分配，不同節點不會衝突；
+     * 同一節點內與 {@link LockFreeSnowflakeIdGenerator} 行為一致，序列號溢出時等待下一毫秒，時鐘回撥時拒絕發號，
+     * 租約式節點 ID 同樣只發放時間戳早於租約到期時間的 ID。42 位時間戳可以使用到 2109 年。
+     */
+    @Override
+    public long generateLongId() {
+        return longIdGenerator.generateLongId();
+    }
+
+    @Override
+    public void fillIds(long[] dest) {
+        longIdGenerator.fillIds(dest);
+    }
+
+    @Override
+    public String generateStringId() {
+        return generateStringId(HEX_ENCODER);
+    }
+
+    @Override
+    public String generateStringId(String prefix) {
+        Assert.hasText(prefix, "ID前綴不能為空");
+        return prefix + generateStringId();
+    }
+
+    /**
+     * 按指定編碼器編碼完整的 128 位 UUID，定長編碼的結果保持時間順序。
+     */
+    @Override
+    public String generateStringId(IdEncoder encoder) {
+        Assert.notNull(encoder, "ID編碼器不能為空");
+        return encoder.encode(nextMostSigBits(), nextLeastSigBits());
+    }
+
+    /**
+     * 按指定編碼器將完整的 128 位 UUID 寫入緩衝區，緩衝區剩餘空間至少為 {@link IdEncoder#maxLength128()}。
+     */
+    @Override
+    public int generateId(IdEncoder encoder, byte[] dest, int offset) {
+        Assert.notNull(encoder, "ID編碼器不能為空");
+        return encoder.encode(nextMostSigBits(), nextLeastSigBits(), dest, offset);
+    }
+
+    /**
+     * 推進 (時間戳, 計數器) 狀態並組合 UUID 的高 64 位。
+     */
+    private long nextMostSigBits() {
+        long next = nextState();
+        long timestamp = next >>> COUNTER_BITS;
+        long counter = next & ((1L << COUNTER_BITS) - 1);
+        return (timestamp << 16) | VERSION_BITS | counter;
+    }
+
+    /**
+     * 推進並返回打包後的 (時間戳, 計數器) 狀態。
+     * 計數器位於低位，溢出時直接 +1 即進位到下一毫秒。
+     */
+    private long nextState() {
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis();
+            long next;
+            if (now > (current >>> COUNTER_BITS)) {
+                // 新的毫秒，計數器從隨機值開始
+                next = (now << COUNTER_BITS) | ThreadLocalRandom.current().nextInt(COUNTER_SEED_BOUND);
+            } else {
+                // 同一毫秒、借用的未來毫秒或時鐘回撥，繼續遞增
+                next = current + 1;
+            }
+            if (state.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long nextLeastSigBits() {
+        return (ThreadLocalRandom.current().nextLong() & RANDOM_MASK) | VARIANT_BITS;
+    }
+
+    /**
+     * 將 (數據中心 ID, 機器 ID) 拼接為 Long ID 佈局中的單個節點 ID，租約與原分配器一致。
+     */
+    private static final class NodeIdAssigner implements WorkerIdAssigner {
+
+        private final WorkerIdAssigner delegate;
+        private final long nodeId;
+
+        private NodeIdAssigner(WorkerIdAssigner delegate, SnowflakeLayout layout) {
+            long datacenterId = delegate.getDatacenterId();
+            long workerId = delegate.getWorkerId();
+            layout.validateNode(datacenterId, workerId);
+            this.delegate = delegate;
+            this.nodeId = (datacenterId << layout.getWorkerIdBits()) | workerId;
+        }
+
+        @Override
+        public long getDatacenterId() {
+            return 0L;
+        }
+
+        @Override
+        public long getWorkerId() {
+            return nodeId;
+        }
+
+        @Override
+        public long getLeaseExpireTime() {
+            return delegate.getLeaseExpireTime();
+        }
+    }
+
+    private static void writeLong(long value, byte[] dest, int offset) {
+        for (int i = 7; i >= 0; i--) {
+            dest[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0L;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,115 @@
+package com.td.boot.starter.distributedid.metrics;
+
+import com.td.boot.starter.distributedid.generator.IIdGenerator;
+import com.td.boot.starter.distributedid.generator.segment.SegmentIdGenerator;
+import com.td.boot.starter.distributedid.generator.segment.buffer.RingBuffer;
+import com.td.boot.starter.distributedid.generator.snowflake.AbstractSnowflakeIdGenerator;
+import com.td.boot.starter.distributedid.generator.snowflake.ClockTolerantSnowflakeIdGenerator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分佈式 ID 生成器的 Micrometer 指標綁定器。
+ * 生成器只在各自的 LongAdder 計數器上累加，指標全部是讀取這些計數器的函數式指標，
+ * 因此發號熱路徑上沒有 Micrometer 調用，也不會格式化日誌字符串。
+ * <ul>
+ *     <li>號段模式 (按 bizKey 標籤)：取號耗時、取號失敗、緊急填充、號段切換計數，當前號段剩餘 ID、預取號段數量和當前步長；</li>
+ *     <li>Snowflake 模式：序列號溢出次數和等待下一毫秒的耗時，容忍時鐘漂移模式另有借用、回撥吸收計數和借用毫秒數。</li>
+ * </ul>
+ */
+public class DistributedIdMetricsBinder implements MeterBinder {
+
+    private static final String PREFIX = "td.distributed.id";
+
+    private final List<IIdGenerator> idGenerators;
+
+    public DistributedIdMetricsBinder(List<IIdGenerator> idGenerators) {
+        Assert.notNull(idGenerators, "IIdGenerator 列表不能為空");
+        this.idGenerators = idGenerators;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (IIdGenerator idGenerator : idGenerators) {
+            if (idGenerator instanceof SegmentIdGenerator segmentIdGenerator) {
+                bindSegment(registry, segmentIdGenerator);
+            } else if (idGenerator instanceof AbstractSnowflakeIdGenerator snowflake) {
+                bindSnowflake(registry, snowflake);
+                if (snowflake instanceof ClockTolerantSnowflakeIdGenerator clockTolerant) {
+                    bindClockTolerant(registry, clockTolerant);
+                }
+            }
+        }
+    }
+
+    /**
+     * 為已註冊的業務鍵綁定指標，並監聽之後懶加載註冊的業務鍵。
+     * 監聽與遍歷之間新註冊的業務鍵可能被綁定兩次，Micrometer 對相同名稱和標籤的指標只保留第一個，不影響結果。
+     */
+    private void bindSegment(MeterRegistry registry, SegmentIdGenerator segmentIdGenerator) {
+        segmentIdGenerator.addRegistrationListener((bizKey, ringBuffer) -> bindRingBuffer(registry, bizKey, ringBuffer));
+        segmentIdGenerator.getRingBuffers().forEach((bizKey, ringBuffer) -> bindRingBuffer(registry, bizKey, ringBuffer));
+    }
+
+    private void bindRingBuffer(MeterRegistry registry, String bizKey, RingBuffer ringBuffer) {
+        Tags tags = Tags.of("bizKey", bizKey);
+        FunctionTimer.builder(PREFIX + ".segment.refill", ringBuffer,
+                        RingBuffer::getRefillCount, RingBuffer::getRefillTimeNanos, TimeUnit.NANOSECONDS)
+                .description("從號段提供者取號的次數和耗時")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".segment.refill.failures", ringBuffer, RingBuffer::getRefillFailureCount)
+                .description("從號段提供者取號失敗的次數")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".segment.emergency.fills", ringBuffer, RingBuffer::getEmergencyFillCount)
+                .description("預取隊列為空時同步緊急填充的次數")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".segment.switches", ringBuffer, RingBuffer::getSwitchCount)
+                .description("號段切換的次數")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + ".segment.remaining", ringBuffer, RingBuffer::getRemaining)
+                .description("當前號段剩餘可發放的 ID 數量")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + ".segment.prefetched", ringBuffer, RingBuffer::getPrefetchedCount)
+                .description("已預取、尚未使用的號段數量")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(PREFIX + ".segment.step", ringBuffer, RingBuffer::getCurrentStep)
+                .description("最近一次取號的步長")
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void bindSnowflake(MeterRegistry registry, AbstractSnowflakeIdGenerator generator) {
+        FunctionTimer.builder(PREFIX + ".snowflake.sequence.overflow", generator,
+                        AbstractSnowflakeIdGenerator::getWaitCount, AbstractSnowflakeIdGenerator::getWaitTimeNanos, TimeUnit.NANOSECONDS)
+                .description("等待系統時鐘的次數和耗時：序列號溢出後等待下一毫秒，容忍時鐘漂移模式下為借用額度用盡後的等待")
+                .register(registry);
+    }
+
+    private void bindClockTolerant(MeterRegistry registry, ClockTolerantSnowflakeIdGenerator generator) {
+        FunctionCounter.builder(PREFIX + ".snowflake.borrows", generator, ClockTolerantSnowflakeIdGenerator::getBorrowCount)
+                .description("序列號溢出時借用未來毫秒的次數")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".snowflake.clock.backward.absorbed", generator,
+                        ClockTolerantSnowflakeIdGenerator::getBackwardAbsorbedCount)
+                .description("吸收系統時鐘回撥的次數")
+                .register(registry);
+        Gauge.builder(PREFIX + ".snowflake.borrowed", generator, ClockTolerantSnowflakeIdGenerator::getBorrowedMillis)
+                .description("當前邏輯時間戳領先系統時鐘的毫秒數")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
@@ -30,12 +30,23 @@ public class DistributedIdProperties {
      */
     private SegmentProperties segment = new SegmentProperties();
 
+    /**
+     * 是否在類路徑存在 Micrometer 時註冊 ID 生成器指標。
+     */
+    private boolean metricsEnabled = true;
+
     /**
      * ID 生成策略類型枚舉。
      */
     public enum IdStrategyType {
         SNOWFLAKE,
         UUID,
+        /**
+         * 按時間排序的 UUID (RFC 9562 version 7)，適合作為數據庫主鍵。
+         * 其 Long ID 為 (Unix 毫秒時間戳 42bit) + (節點 ID 10bit) + (序列號 11bit)，節點 ID 與 SNOWFLAKE 共用 worker-id-assigner 分配，
+         * 因此要求 snowflake.datacenter-id-bits + snowflake.worker-id-bits 不超過 10。
+         */
+        UUID_V7,
         SEGMENT
     }
 
@@ -45,16 +56,98 @@ public class DistributedIdProperties {
     @Data
     public static class SnowflakeProperties {
         /**
-         * 數據中心 ID (0-31)。
+         * 數據中心 ID (默認佈局下 0-31)。
          * 需要保證在同一集群內唯一。
          */
         private long datacenterId = 0L;
 
         /**
-         * 工作節點 ID (0-31)。
+         * 工作節點 ID (默認佈局下 0-31)。
          * 需要保證在同一數據中心內唯一。
          */
         private long workerId = 0L;
+
+        /**
+         * 時間戳佔用的位數，默認 41 位 (約 69 年)。
+         * 時間戳、數據中心 ID、工作節點 ID 和序列號的位數之和不能超過 63 位，啟動時校驗。
+         */
+        private int timestampBits = 41;
+
+        /**
+         * 數據中心 ID 佔用的位數，默認 5 位。單數據中心部署可以設為 0，把位數讓給工作節點 ID。
+         */
+        private int datacenterIdBits = 5;
+
+        /**
+         * 工作節點 ID 佔用的位數，默認 5 位 (每個數據中心 32 個節點)。
+         */
+        private int workerIdBits = 5;
+
+        /**
+         * 序列號佔用的位數，默認 12 位 (每個節點每毫秒 4096 個 ID)。
+         */
+        private int sequenceBits = 12;
+
+        /**
+         * 起始時間戳 (ISO-8601 格式)，不能晚於當前時間。
+         * 已經上線的系統修改位佈局或起始時間戳可能與歷史 ID 重複，必須謹慎。
+         */
+        private String epoch = "2024-01-01T00:00:00.000+08:00";
+
+        /**
+         * Snowflake 生成器的實現模式。
+         * SYNCHRONIZED 為基於監視器鎖的實現；LOCK_FREE 將 (時間戳, 序列號) 打包進單個 AtomicLong，通過 CAS 生成 ID。
+         * 兩種模式的 ID 位佈局和時鐘回撥檢測保持一致。
+         * CLOCK_TOLERANT 在序列號溢出時借用未來毫秒，並吸收小幅時鐘回撥。
+         */
+        private SnowflakeMode mode = SnowflakeMode.SYNCHRONIZED;
+
+        /**
+         * CLOCK_TOLERANT 模式下，邏輯時間戳最多可以領先系統時鐘的毫秒數。
+         * 突發流量導致毫秒內序列號用盡時，優先借用未來毫秒而不是自旋等待。
+         */
+        private long maxBorrowMillis = 10L;
+
+        /**
+         * CLOCK_TOLERANT 模式下，可以吸收的系統時鐘回撥毫秒數。
+         * 超過此值的回撥仍然會拒絕發號。
+         */
+        private long maxBackwardMillis = 10L;
+
+        /**
+         * 工作節點 ID 的分配方式。
+         * STATIC 使用上面配置的 datacenterId 和 workerId；REDIS / DB 在啟動時租用一個空閒的節點 ID，並通過心跳續約，
+         * 適用於實例數量動態伸縮、無法逐個手工分配 ID 的場景。
+         */
+        private WorkerIdAssignerType workerIdAssigner = WorkerIdAssignerType.STATIC;
+
+        /**
+         * 租用工作節點 ID 的租約有效期 (毫秒)。租約過期且未能續約時拒絕發號。
+         */
+        private long workerIdLeaseTtlMillis = 30_000L;
+
+        /**
+         * 工作節點 ID 租約的心跳續約間隔 (毫秒)，必須小於租約有效期。
+         */
+        private long workerIdHeartbeatIntervalMillis = 10_000L;
+
+        /**
+         * 工作節點 ID 分配方式枚舉。
+         */
+        public enum WorkerIdAssignerType {
+            STATIC,
+            REDIS,
+            DB
+        }
+
+        /**
+         * Snowflake 實現模式枚舉。
+         */
+        public enum SnowflakeMode {
+            SYNCHRONIZED,
+            LOCK_FREE,
+            CLOCK_TOLERANT
+        }
     }
 
     /**
@@ -91,22 +184,113 @@ public class DistributedIdProperties {
         private long preloadIntervalMillis = 3000; // 默認 3 秒
 
         /**
-         * 號段填充異步線程池核心大小。
+         * 是否啟用動態步長。
+         * 啟用後根據每個業務鍵兩次取號之間的間隔調整下一次請求的步長：
+         * 間隔小於 stepAdjustWindowMillis 時步長翻倍，大於兩倍窗口時步長減半。
+         */
+        private boolean adaptiveStep = false;
+
+        /**
+         * 動態步長的上限。
+         * 下限為該業務鍵首次獲取號段時的步長 (即配置表或 step 配置的步長)。
+         */
+        private int maxStep = 1_000_000;
+
+        /**
+         * 動態步長的調整窗口 (毫秒)。
+         * 默認 15 分鐘，即一個號段消耗時間少於 15 分鐘時擴大步長。
+         */
+        private long stepAdjustWindowMillis = 15 * 60 * 1000L;
+
+        /**
+         * 是否允許懶加載註冊未在 bizKeys 中配置的業務鍵，默認關閉。
+         * 關閉時對未配置的業務鍵拋出 IllegalArgumentException；啟用後首次使用某個業務鍵時才創建其號段緩衝區，
+         * 拼寫錯誤的業務鍵也會在數據源中創建新的序列並分配號段。
+         */
+        private boolean lazyRegister = false;
+
+        /**
+         * 是否在啟動時異步並行預熱 bizKeys 中配置的業務鍵。
+         * 關閉時在構造生成器時逐個同步預熱。
+         */
+        private boolean asyncWarmUp = true;
+
+        /**
+         * 異步預熱的最大並行度。
+         */
+        private int warmUpParallelism = 4;
+
+        /**
+         * 每個業務鍵預取隊列的深度 (不含當前正在使用的號段)。
+         * 默認 1，等價於雙緩衝區；數據源較慢時可以加大，用更多內存中的號段吸收數據源抖動。
+         */
+        private int prefetchDepth = 1;
+
+        /**
+         * 預取隊列的低水位。
+         * 已預取的號段數量低於此值時立即觸發異步補齊；為 0 時僅在預取隊列為空且當前號段即將用盡時觸發。
+         */
+        private int prefetchLowWaterMark = 0;
+
+        /**
+         * 切換號段時預取隊列為空、但異步預加載正在進行，最多等待其結果的時間 (毫秒)。
+         * 超時後才同步訪問號段提供者。
+         */
+        private long switchWaitTimeoutMillis = 500;
+
+        /**
+         * 號段提供者支持批量取號時，是否把啟動預熱和並發的異步補齊合併成批量請求，默認關閉。
+         */
+        private boolean batchFetch = false;
+
+        /**
+         * 單次批量取號最多包含的業務鍵數量，超過時拆分成多次請求。
+         */
+        private int batchFetchSize = 100;
+
+        /**
+         * 是否啟用號段快照。
+         * 啟用後正常關閉時把尚未發放的號段區間寫入 snapshotPath，重啟時優先從快照恢復，不足部分再向號段提供者獲取。
+         * 快照被恢復後立即作廢，未正常關閉 (例如進程崩潰) 時不會留下可恢復的快照。
+         */
+        private boolean snapshotEnabled = false;
+
+        /**
+         * 號段快照文件路徑，啟用快照時必須配置。
+         * 每個實例必須使用獨立的文件，快照中的區間只屬於寫入它的號段數據源。
+         */
+        private String snapshotPath;
+
+        /**
+         * 異步填充號段使用的執行器類型。
+         * PLATFORM 為固定大小的平台線程池；VIRTUAL 為每個任務一個虛擬線程，不存在隊列滿時在請求線程中執行填充的問題，
+         * 每個業務鍵同一時刻最多只有一個填充任務，因此任務數量不會超過業務鍵數量。
+         */
+        private RefillExecutorType refillExecutor = RefillExecutorType.PLATFORM;
+
+        /**
+         * 關閉生成器時等待進行中的填充任務完成的最長時間 (毫秒)，超時後中斷這些任務。
+         */
+        private long shutdownTimeoutMillis = 5000;
+
+        /**
+         * 號段填充異步線程池核心大小，僅 refillExecutor 為 PLATFORM 時生效。
          */
         private int corePoolSize = 1;
 
         /**
-         * 號段填充異步線程池最大大小。
+         * 號段填充異步線程池最大大小，僅 refillExecutor 為 PLATFORM 時生效。
          */
         private int maxPoolSize = 2;
 
         /**
-         * 號段填充異步線程池線程存活時間 (秒)。
+         * 號段填充異步線程池線程存活時間 (秒)，僅 refillExecutor 為 PLATFORM 時生效。
          */
         private int keepAliveTimeSeconds = 60;
 
         /**
-         * 號段填充異步線程池隊列容量。
+         * 號段填充異步線程池隊列容量，僅 refillExecutor 為 PLATFORM 時生效。
+         * 隊列已滿時填充任務在請求線程中執行。
          */
         private int queueCapacity = 100;
 
@@ -117,6 +301,20 @@ public class DistributedIdProperties {
             DB,
             REDIS
         }
+
+        /**
+         * 異步填充執行器類型枚舉。
+         */
+        public enum RefillExecutorType {
+            /**
+             * 固定大小的平台線程池。
+             */
+            PLATFORM,
+            /**
+             * 每個任務一個虛擬線程 (Java 21+)。
+             */
+            VIRTUAL
+        }
     }
 
 }
@@ -0,0 +1,155 @@
+package com.td.boot.starter.distributedid.generator.segment.provider;
+
+import com.td.boot.starter.distributedid.generator.segment.buffer.IdSegment;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RedisIdSegmentProvider 在內嵌 Redis (embedded-redis 自帶的 redis-server) 上的行為測試，
+ * 覆蓋 Lua 取號腳本、按鍵步長、管道批量取號和 hash tag 槽位，不依賴 Docker。
+ */
+class RedisIdSegmentProviderTest {
+
+    private static final int DEFAULT_STEP = 100;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RedisIdSegmentProvider provider;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port = freePort();
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        provider = new RedisIdSegmentProvider(redisTemplate, DEFAULT_STEP);
+    }
+
+    @Test
+    void usesDefaultStepWhenNoStepIsStored() throws Exception {
+        IdSegment first = provider.getNextSegment("order_id");
+        IdSegment second = provider.getNextSegment("order_id");
+
+        assertThat(first.getStep()).isEqualTo(DEFAULT_STEP);
+        assertThat(first.getMin()).isEqualTo(1);
+        assertThat(first.getMax()).isEqualTo(1 + DEFAULT_STEP);
+        assertThat(second.getMin()).isEqualTo(first.getMax());
+    }
+
+    @Test
+    void usesPerKeyStepStoredInRedis() throws Exception {
+        provider.setStep("user_id", 500);
+
+        IdSegment segment = provider.getNextSegment("user_id");
+
+        assertThat(segment.getStep()).isEqualTo(500);
+        assertThat(segment.getMax() - segment.getMin()).isEqualTo(500);
+        // 其他業務鍵不受影響
+        assertThat(provider.getNextSegment("order_id").getStep()).isEqualTo(DEFAULT_STEP);
+    }
+
+    @Test
+    void explicitStepOverridesStoredStep() throws Exception {
+        provider.setStep("user_id", 500);
+
+        IdSegment overridden = provider.getNextSegment("user_id", 20);
+        IdSegment stored = provider.getNextSegment("user_id");
+
+        assertThat(overridden.getStep()).isEqualTo(20);
+        assertThat(stored.getStep()).isEqualTo(500);
+        assertThat(stored.getMin()).isEqualTo(overridden.getMax());
+    }
+
+    @Test
+    void batchFetchReturnsContiguousNonOverlappingRanges() throws Exception {
+        provider.setStep("a", 10);
+        provider.initSegment("c", 1_000);
+        IdSegment single = provider.getNextSegment("a");
+
+        Map<String, List<IdSegment>> fetched = new LinkedHashMap<>();
+        fetched.computeIfAbsent("a", key -> new ArrayList<>()).add(single);
+        for (int round = 0; round < 3; round++) {
+            Map<String, Integer> steps = new LinkedHashMap<>();
+            steps.put("a", 0);
+            steps.put("b", 0);
+            steps.put("c", 30);
+            Map<String, IdSegment> segments = provider.getNextSegments(steps);
+
+            assertThat(segments).containsOnlyKeys("a", "b", "c");
+            assertThat(segments.get("a").getStep()).isEqualTo(10);
+            assertThat(segments.get("b").getStep()).isEqualTo(DEFAULT_STEP);
+            assertThat(segments.get("c").getStep()).isEqualTo(30);
+            segments.forEach((bizKey, segment) -> fetched.computeIfAbsent(bizKey, key -> new ArrayList<>()).add(segment));
+        }
+
+        assertThat(fetched.get("c").get(0).getMin()).isEqualTo(1_001);
+        fetched.forEach((bizKey, segments) -> {
+            List<IdSegment> sorted = new ArrayList<>(segments);
+            sorted.sort(Comparator.comparingLong(IdSegment::getMin));
+            // 按獲取順序遞增，且相鄰號段首尾相接
+            assertThat(sorted).containsExactlyElementsOf(segments);
+            for (int i = 1; i < sorted.size(); i++) {
+                assertThat(sorted.get(i).getMin()).as(bizKey).isEqualTo(sorted.get(i - 1).getMax());
+            }
+        });
+    }
+
+    @Test
+    void stepKeyIsInTheSameClusterSlotAsCounterKey() {
+        for (String bizKey : List.of("order_id", "user:1", "tagged{order}", "open{brace")) {
+            assertThat(SlotHash.getSlot(RedisIdSegmentProvider.stepKey(bizKey)))
+                    .as(bizKey)
+                    .isEqualTo(SlotHash.getSlot(RedisIdSegmentProvider.counterKey(bizKey)));
+        }
+        // 空哈希標籤時計數器按整個 Key 計算槽位，步長 Key 無法對齊，直接拒絕
+        assertThatThrownBy(() -> RedisIdSegmentProvider.stepKey("{}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}